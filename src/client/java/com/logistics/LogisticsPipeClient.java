@@ -2,6 +2,7 @@ package com.logistics;
 
 import com.logistics.core.bootstrap.DomainBootstrap;
 import com.logistics.core.render.ModelRegistry;
+import com.logistics.pipe.network.PipeSyncClient;
 import com.logistics.pipe.render.PipeBlockEntityRenderer;
 import com.logistics.pipe.screen.ItemFilterScreen;
 import net.minecraft.client.gui.screens.MenuScreens;
@@ -32,5 +33,7 @@ public final class LogisticsPipeClient implements DomainBootstrap {
         BlockEntityRenderers.register(LogisticsPipe.ENTITY.PIPE_BLOCK_ENTITY, PipeBlockEntityRenderer::new);
 
         MenuScreens.register(LogisticsPipe.SCREEN.ITEM_FILTER, ItemFilterScreen::new);
+
+        PipeSyncClient.register();
     }
 }
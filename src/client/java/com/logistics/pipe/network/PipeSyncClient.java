@@ -0,0 +1,80 @@
+package com.logistics.pipe.network;
+
+import com.logistics.pipe.block.entity.PipeBlockEntity;
+import com.logistics.pipe.runtime.PipeItemBuffer;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.client.multiplayer.ClientLevel;
+
+/**
+ * Applies {@link PipeSyncPayload} deltas to client-side pipe block entities.
+ */
+public final class PipeSyncClient {
+    private PipeSyncClient() {}
+
+    public static void register() {
+        ClientPlayNetworking.registerGlobalReceiver(PipeSyncPayload.TYPE, (payload, context) -> {
+            ClientLevel level = context.client().level;
+            if (level != null && level.getBlockEntity(payload.pos()) instanceof PipeBlockEntity pipeEntity) {
+                apply(pipeEntity, payload);
+            }
+        });
+    }
+
+    private static void apply(PipeBlockEntity pipeEntity, PipeSyncPayload payload) {
+        PipeItemBuffer items = pipeEntity.getItemBuffer();
+        for (PipeSyncPayload.Op op : payload.ops()) {
+            switch (op) {
+                case PipeSyncPayload.AddItem add -> {
+                    if (items.indexOf(add.id()) < 0) {
+                        items.add(add.id(), add.stack(), add.direction(), add.speed(), add.progress(), add.routed());
+                    }
+                }
+                case PipeSyncPayload.RouteItem route -> {
+                    int index = items.indexOf(route.id());
+                    if (index >= 0) {
+                        items.setDirection(index, route.direction());
+                        items.setRouted(index, true);
+                    }
+                }
+                case PipeSyncPayload.RemoveItem remove -> {
+                    int index = items.indexOf(remove.id());
+                    if (index >= 0) {
+                        items.removeAt(index);
+                    }
+                }
+                case PipeSyncPayload.HandOffItem handOff -> {
+                    // Keep rendering the item past the exit; the client tick removes it at 1.3 (see PipeRuntime)
+                    int index = items.indexOf(handOff.id());
+                    if (index >= 0) {
+                        items.setProgress(index, Math.max(items.getProgress(index), 1.0f));
+                        items.setRouted(index, true);
+                        items.setStalled(index, false);
+                    }
+                }
+                case PipeSyncPayload.StallItem stall -> {
+                    int index = items.indexOf(stall.id());
+                    if (index < 0) {
+                        index = items.add(stall.id(), stall.stack(), stall.direction(), 0.0f, 1.0f, true);
+                    } else {
+                        items.setStack(index, stall.stack());
+                        items.setProgress(index, 1.0f);
+                    }
+                    items.setStalled(index, true);
+                }
+                case PipeSyncPayload.MergeItems merge -> {
+                    int target = items.indexOf(merge.targetId());
+                    int source = items.indexOf(merge.sourceId());
+                    if (target >= 0 && source >= 0) {
+                        items.mergeInto(target, source);
+                    }
+                }
+                case PipeSyncPayload.Connections connections ->
+                        pipeEntity.setPackedConnectionTypes(connections.packedTypes());
+                case PipeSyncPayload.ModuleState moduleState -> pipeEntity.setModuleState(moduleState.state());
+            }
+        }
+
+        // Items or configuration changed, so make sure the client pipe is ticking again
+        pipeEntity.wake();
+    }
+}
@@ -6,7 +6,7 @@ import com.logistics.pipe.Pipe;
 import com.logistics.pipe.PipeContext;
 import com.logistics.pipe.block.PipeBlock;
 import com.logistics.pipe.block.entity.PipeBlockEntity;
-import com.logistics.pipe.runtime.TravelingItem;
+import com.logistics.pipe.runtime.PipeItemBuffer;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.math.Axis;
 import net.minecraft.client.renderer.ItemBlockRenderTypes;
@@ -99,13 +99,14 @@ public class PipeBlockEntityRenderer implements BlockEntityRenderer<PipeBlockEnt
         }
 
         // Extract each traveling item
-        for (TravelingItem travelingItem : entity.getTravelingItems()) {
+        PipeItemBuffer items = entity.getItemBuffer();
+        for (int i = 0; i < items.size(); i++) {
             TravelingItemRenderState itemState = new TravelingItemRenderState();
 
             // Update the ItemRenderState using ItemModelManager
             this.itemModelManager.appendItemLayers(
                     itemState.itemRenderState,
-                    travelingItem.getStack(),
+                    items.getStack(i),
                     ItemDisplayContext.GROUND,
                     entity.getLevel(),
                     null, // heldItemContext - not held by entity
@@ -113,9 +114,9 @@ public class PipeBlockEntityRenderer implements BlockEntityRenderer<PipeBlockEnt
                     );
 
             // Store item data
-            itemState.direction = travelingItem.getDirection();
-            itemState.progress = travelingItem.getProgress();
-            itemState.currentSpeed = travelingItem.getSpeed();
+            itemState.direction = items.getDirection(i);
+            itemState.progress = items.getProgress(i);
+            itemState.currentSpeed = items.getSpeed(i);
 
             state.travelingItems.add(itemState);
         }
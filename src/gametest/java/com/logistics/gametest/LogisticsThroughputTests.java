@@ -0,0 +1,311 @@
+package com.logistics.gametest;
+
+import com.logistics.LogisticsAutomation;
+import com.logistics.LogisticsPipe;
+import com.logistics.automation.laserquarry.LaserQuarryConfig;
+import com.logistics.automation.laserquarry.entity.LaserQuarryBlockEntity;
+import com.logistics.pipe.block.PipeBlock;
+import com.logistics.pipe.block.entity.PipeBlockEntity;
+import com.logistics.pipe.modules.ItemFilterModule;
+import java.util.List;
+import java.util.Locale;
+import net.fabricmc.fabric.api.gametest.v1.GameTest;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.Blocks;
+
+/**
+ * Throughput regression suite: each test builds a reference layout in an empty structure, runs it for a fixed
+ * number of ticks and checks items delivered and items dropped. Every layout has its own test environment, so it
+ * runs in a batch of its own and the tick time is that layout's alone.
+ *
+ * <p>Results, including mean tick time against the layout's budget, go to {@link ThroughputReport}. Wall-clock
+ * tick time depends on the machine, so an over-budget layout only fails when
+ * {@code -Dlogistics.gametest.enforceTickBudget=true} is set. Run with {@code ./gradlew runGameTest}.
+ *
+ * <p>Items leave extractors at {@code ITEM_MIN_SPEED} (50 ticks per pipe) and a pipe holds
+ * {@code VIRTUAL_CAPACITY} items, so a plain line carries a bit over 6 items per tick. The tick counts and
+ * minimums below are sized from that with a wide margin.
+ */
+public class LogisticsThroughputTests {
+    private static final String NAMESPACE = "logistics_gametest:";
+    private static final boolean ENFORCE_TICK_BUDGET = Boolean.getBoolean("logistics.gametest.enforceTickBudget");
+
+    // chest -> extractor -> 64 copper pipes -> chest; 65 pipes at 50 ticks each before the first item arrives
+    private static final int LINE_PIPES = 64;
+    private static final int LINE_STACKS = 27;
+    private static final int LINE_TICKS = 4400;
+    private static final double LINE_TICK_BUDGET_MS = 5.0;
+
+    // extractor -> filter pipe with one filtered barrel on each of its five other faces
+    private static final List<Item> SORTED_ITEMS =
+            List.of(Items.IRON_INGOT, Items.GOLD_INGOT, Items.COPPER_INGOT, Items.REDSTONE, Items.LAPIS_LAZULI);
+    private static final int SORTER_STACKS_PER_ITEM = 2;
+    private static final int SORTER_TICKS = 800;
+    private static final double SORTER_TICK_BUDGET_MS = 5.0;
+
+    // extractor (kept supplied) -> row of insertion pipes with a barrel on either side of each
+    private static final int ARRAY_PIPES = 8;
+    private static final int ARRAY_TICKS = 1600;
+    private static final long ARRAY_MIN_DELIVERED = 4000;
+    private static final double ARRAY_TICK_BUDGET_MS = 5.0;
+
+    // quarry with a 5x5 mining area over three layers of stone -> pipes -> barrel
+    private static final int QUARRY_STONE_LAYERS = 3;
+    private static final int QUARRY_TICKS = 2000;
+    private static final double QUARRY_TICK_BUDGET_MS = 8.0;
+
+    @GameTest(
+            structure = NAMESPACE + "extractor_line",
+            environment = NAMESPACE + "extractor_line",
+            maxTicks = LINE_TICKS + 20)
+    public void extractorLine(GameTestHelper helper) {
+        BlockPos source = new BlockPos(0, 1, 1);
+        BlockPos extractor = source.east();
+        BlockPos sink = extractor.east(LINE_PIPES + 1);
+
+        fillFloor(helper, 0, LINE_PIPES + 3, 3);
+        helper.setBlock(source, Blocks.BARREL);
+        long supplied = fill(helper, source, new ItemStack(Items.COBBLESTONE, 64), LINE_STACKS);
+        helper.setBlock(sink, Blocks.BARREL);
+        helper.setBlock(extractor, LogisticsPipe.BLOCK.ITEM_EXTRACTOR_PIPE);
+        for (int i = 1; i <= LINE_PIPES; i++) {
+            helper.setBlock(extractor.east(i), LogisticsPipe.BLOCK.COPPER_TRANSPORT_PIPE);
+        }
+        keepPowered(helper, extractor);
+
+        ThroughputProbe probe = ThroughputProbe.start(helper);
+        helper.runAtTickTime(LINE_TICKS, () -> {
+            ThroughputReport.Result result = probe.finish("extractor_line", LINE_TICKS,
+                    probe.countItems(sink), probe.countDropped(), probe.countInFlight(), LINE_TICK_BUDGET_MS);
+
+            assertNoLoss(helper, result, supplied, probe.countItems(source));
+            helper.assertTrue(result.delivered() == supplied,
+                    Component.literal("Delivered " + result.delivered() + " of " + supplied + " items"));
+            assertWithinBudget(helper, result);
+            helper.succeed();
+        });
+    }
+
+    @GameTest(
+            structure = NAMESPACE + "filter_sorter",
+            environment = NAMESPACE + "filter_sorter",
+            maxTicks = SORTER_TICKS + 20)
+    public void filterSorter(GameTestHelper helper) {
+        BlockPos source = new BlockPos(0, 2, 2);
+        BlockPos extractor = source.east();
+        BlockPos filter = extractor.east(2);
+        List<Direction> outputs =
+                List.of(Direction.EAST, Direction.NORTH, Direction.SOUTH, Direction.UP, Direction.DOWN);
+
+        fillFloor(helper, 0, 5, 5);
+        helper.setBlock(source, Blocks.BARREL);
+        long supplied = 0;
+        for (Item item : SORTED_ITEMS) {
+            supplied += fill(helper, source, new ItemStack(item, 64), SORTER_STACKS_PER_ITEM);
+        }
+        for (Direction output : outputs) {
+            helper.setBlock(filter.relative(output), Blocks.BARREL);
+        }
+        helper.setBlock(extractor, LogisticsPipe.BLOCK.ITEM_EXTRACTOR_PIPE);
+        helper.setBlock(extractor.east(), LogisticsPipe.BLOCK.COPPER_TRANSPORT_PIPE);
+        helper.setBlock(filter, LogisticsPipe.BLOCK.ITEM_FILTER_PIPE);
+        keepPowered(helper, extractor);
+
+        if (helper.getLevel().getBlockEntity(helper.absolutePos(filter)) instanceof PipeBlockEntity pipe
+                && pipe.getBlockState().getBlock() instanceof PipeBlock pipeBlock) {
+            ItemFilterModule module = pipeBlock.getPipe().getModule(ItemFilterModule.class);
+            for (int i = 0; i < outputs.size(); i++) {
+                String id = BuiltInRegistries.ITEM.getKey(SORTED_ITEMS.get(i)).toString();
+                module.setFilterSlots(pipe.createContext(), outputs.get(i), List.of(id));
+            }
+        }
+
+        long expectedPerItem = SORTER_STACKS_PER_ITEM * 64L;
+        ThroughputProbe probe = ThroughputProbe.start(helper);
+        helper.runAtTickTime(SORTER_TICKS, () -> {
+            long delivered = 0;
+            for (Direction output : outputs) {
+                delivered += probe.countItems(filter.relative(output));
+            }
+            ThroughputReport.Result result = probe.finish("filter_sorter", SORTER_TICKS,
+                    delivered, probe.countDropped(), probe.countInFlight(), SORTER_TICK_BUDGET_MS);
+
+            assertNoLoss(helper, result, supplied, probe.countItems(source));
+            for (int i = 0; i < outputs.size(); i++) {
+                BlockPos barrel = filter.relative(outputs.get(i));
+                Item item = SORTED_ITEMS.get(i);
+                long sorted = probe.countItems(barrel, item);
+                helper.assertTrue(sorted == expectedPerItem && probe.countItems(barrel) == sorted,
+                        Component.literal(outputs.get(i) + " barrel holds " + sorted + " of " + expectedPerItem
+                                + " " + item + " and " + (probe.countItems(barrel) - sorted) + " other items"));
+            }
+            assertWithinBudget(helper, result);
+            helper.succeed();
+        });
+    }
+
+    @GameTest(
+            structure = NAMESPACE + "insertion_array",
+            environment = NAMESPACE + "insertion_array",
+            maxTicks = ARRAY_TICKS + 20)
+    public void insertionArray(GameTestHelper helper) {
+        BlockPos source = new BlockPos(0, 1, 2);
+        BlockPos extractor = source.east();
+
+        fillFloor(helper, 0, ARRAY_PIPES + 2, 5);
+        helper.setBlock(source, Blocks.BARREL);
+        for (int i = 1; i <= ARRAY_PIPES; i++) {
+            helper.setBlock(extractor.east(i).north(), Blocks.BARREL);
+            helper.setBlock(extractor.east(i).south(), Blocks.BARREL);
+        }
+        helper.setBlock(extractor, LogisticsPipe.BLOCK.ITEM_EXTRACTOR_PIPE);
+        for (int i = 1; i <= ARRAY_PIPES; i++) {
+            helper.setBlock(extractor.east(i), LogisticsPipe.BLOCK.ITEM_INSERTION_PIPE);
+        }
+        keepPowered(helper, extractor);
+
+        // Keep the source full so the extractor never runs dry
+        long[] supplied = {0};
+        helper.onEachTick(() -> supplied[0] += fill(helper, source, new ItemStack(Items.COBBLESTONE, 64), 27));
+
+        ThroughputProbe probe = ThroughputProbe.start(helper);
+        helper.runAtTickTime(ARRAY_TICKS, () -> {
+            long delivered = 0;
+            int reached = 0;
+            for (int i = 1; i <= ARRAY_PIPES; i++) {
+                long pair = probe.countItems(extractor.east(i).north()) + probe.countItems(extractor.east(i).south());
+                delivered += pair;
+                reached += pair > 0 ? 1 : 0;
+            }
+            ThroughputReport.Result result = probe.finish("insertion_array", ARRAY_TICKS,
+                    delivered, probe.countDropped(), probe.countInFlight(), ARRAY_TICK_BUDGET_MS);
+
+            assertNoLoss(helper, result, supplied[0], probe.countItems(source));
+            helper.assertTrue(result.delivered() >= ARRAY_MIN_DELIVERED,
+                    Component.literal("Delivered " + result.delivered() + ", expected at least "
+                            + ARRAY_MIN_DELIVERED));
+            helper.assertTrue(reached > 1,
+                    Component.literal("Only the first insertion pipe's barrels were filled"));
+            assertWithinBudget(helper, result);
+            helper.succeed();
+        });
+    }
+
+    @GameTest(
+            structure = NAMESPACE + "quarry_feed",
+            environment = NAMESPACE + "quarry_feed",
+            maxTicks = QUARRY_TICKS + 20)
+    public void quarryFeed(GameTestHelper helper) {
+        BlockPos quarry = new BlockPos(1, QUARRY_STONE_LAYERS, 4);
+        BlockPos sink = new BlockPos(1, QUARRY_STONE_LAYERS + 1, 0);
+        // Frame corners; the quarry mines the 5x5 inside them
+        BlockPos frameMin = new BlockPos(3, QUARRY_STONE_LAYERS, 1);
+        BlockPos frameMax = new BlockPos(9, QUARRY_STONE_LAYERS, 7);
+
+        for (int y = 0; y < QUARRY_STONE_LAYERS; y++) {
+            fillFloor(helper, y, frameMax.getX() + 2, frameMax.getZ() + 2);
+        }
+        helper.setBlock(sink, Blocks.BARREL);
+        helper.setBlock(quarry, LogisticsAutomation.BLOCK.LASER_QUARRY);
+        for (BlockPos pipe = quarry.above(); pipe.getZ() > sink.getZ(); pipe = pipe.north()) {
+            helper.setBlock(pipe, LogisticsPipe.BLOCK.COPPER_TRANSPORT_PIPE);
+        }
+
+        if (helper.getLevel().getBlockEntity(helper.absolutePos(quarry)) instanceof LaserQuarryBlockEntity entity) {
+            BlockPos min = helper.absolutePos(frameMin);
+            BlockPos max = helper.absolutePos(frameMax);
+            entity.setCustomBounds(min.getX(), min.getZ(), max.getX(), max.getZ());
+            helper.onEachTick(() -> entity.energyStorage.amount = LaserQuarryConfig.ENERGY_CAPACITY);
+        }
+
+        long minimum = (frameMax.getX() - frameMin.getX() - 1L) * (frameMax.getZ() - frameMin.getZ() - 1L)
+                * QUARRY_STONE_LAYERS;
+        ThroughputProbe probe = ThroughputProbe.start(helper);
+        helper.runAtTickTime(QUARRY_TICKS, () -> {
+            ThroughputReport.Result result = probe.finish("quarry_feed", QUARRY_TICKS,
+                    probe.countItems(sink), probe.countDropped(), probe.countInFlight(), QUARRY_TICK_BUDGET_MS);
+
+            helper.assertTrue(result.dropped() == 0, Component.literal(result.dropped() + " items were dropped"));
+            helper.assertTrue(result.delivered() >= minimum,
+                    Component.literal("Delivered " + result.delivered() + ", expected at least " + minimum));
+            assertWithinBudget(helper, result);
+            helper.succeed();
+        });
+    }
+
+    /**
+     * Nothing dropped, and every item that left the source is either delivered or still in a pipe.
+     */
+    private static void assertNoLoss(
+            GameTestHelper helper, ThroughputReport.Result result, long supplied, long leftInSource) {
+        helper.assertTrue(result.dropped() == 0, Component.literal(result.dropped() + " items were dropped"));
+        long accounted = leftInSource + result.delivered() + result.inFlight();
+        helper.assertTrue(accounted == supplied,
+                Component.literal("Supplied " + supplied + " items but found " + accounted));
+    }
+
+    private static void assertWithinBudget(GameTestHelper helper, ThroughputReport.Result result) {
+        if (!ENFORCE_TICK_BUDGET) {
+            return;
+        }
+        helper.assertTrue(result.withinBudget(), Component.literal(String.format(Locale.ROOT,
+                "Mean tick %.3f ms is over the %.1f ms budget", result.meanTickMs(), result.tickBudgetMs())));
+    }
+
+    /**
+     * Fills layer {@code y} of the structure with stone, so anything dropped lands inside the test area.
+     */
+    private static void fillFloor(GameTestHelper helper, int y, int sizeX, int sizeZ) {
+        for (int x = 0; x < sizeX; x++) {
+            for (int z = 0; z < sizeZ; z++) {
+                helper.setBlock(new BlockPos(x, y, z), Blocks.STONE);
+            }
+        }
+    }
+
+    /**
+     * Tops up every empty or partial slot of the container at {@code pos} with {@code stack}, up to
+     * {@code stacks} slots, and returns how many items were added.
+     */
+    private static long fill(GameTestHelper helper, BlockPos pos, ItemStack stack, int stacks) {
+        if (!(helper.getLevel().getBlockEntity(helper.absolutePos(pos)) instanceof Container container)) {
+            return 0;
+        }
+
+        long added = 0;
+        for (int slot = 0; slot < container.getContainerSize() && stacks > 0; slot++) {
+            ItemStack existing = container.getItem(slot);
+            if (existing.isEmpty()) {
+                container.setItem(slot, stack.copy());
+                added += stack.getCount();
+                stacks--;
+            } else if (ItemStack.isSameItemSameComponents(existing, stack) && existing.getCount() < stack.getCount()) {
+                added += stack.getCount() - existing.getCount();
+                existing.setCount(stack.getCount());
+                stacks--;
+            }
+        }
+        if (added > 0) {
+            container.setChanged();
+        }
+        return added;
+    }
+
+    /**
+     * Keeps the energy buffer of the pipe at {@code pos} full, standing in for an engine.
+     */
+    private static void keepPowered(GameTestHelper helper, BlockPos pos) {
+        if (helper.getLevel().getBlockEntity(helper.absolutePos(pos)) instanceof PipeBlockEntity pipe
+                && pipe.energyStorage != null) {
+            helper.onEachTick(() -> pipe.energyStorage.amount = pipe.energyStorage.getCapacity());
+        }
+    }
+}
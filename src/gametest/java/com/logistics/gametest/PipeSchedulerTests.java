@@ -0,0 +1,138 @@
+package com.logistics.gametest;
+
+import com.logistics.LogisticsPipe;
+import com.logistics.pipe.block.entity.PipeBlockEntity;
+import com.logistics.pipe.runtime.PipeScheduler;
+import java.util.ArrayList;
+import java.util.List;
+import net.fabricmc.fabric.api.gametest.v1.GameTest;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.Blocks;
+
+/**
+ * Scheduler behavior that only shows up in a running level.
+ */
+public class PipeSchedulerTests {
+    // Long enough for a fresh pipe with no ticking modules to go dormant
+    private static final int SETTLE_TICKS = 20;
+    private static final int WAKE_DELAY = 10;
+
+    // Items circling a ring of pipes: warm up (JIT compilation, buffers growing to size), then measure
+    private static final int RING_SIDE = 4;
+    private static final List<Item> RING_ITEMS = List.of(Items.COBBLESTONE, Items.DIRT, Items.SAND, Items.GRAVEL);
+    private static final int WARMUP_TICKS = 400;
+    private static final int MEASURE_TICKS = 200;
+    // A routed item queues a small sync op every few dozen ticks; a context, list or JFR event the JIT failed to
+    // remove, allocated per pipe per tick, costs several times this
+    private static final long MAX_BYTES_PER_PIPE_TICK = 16;
+
+    /**
+     * A dormant pipe with a scheduled wake must tick again once the wake time passes. The item is put straight
+     * into the buffer so nothing but the timed wake can get the pipe moving.
+     */
+    @GameTest(maxTicks = 120)
+    public void dormantPipeWakesOnSchedule(GameTestHelper helper) {
+        BlockPos pipePos = new BlockPos(1, 1, 1);
+        BlockPos barrelPos = pipePos.east();
+        helper.setBlock(barrelPos, Blocks.BARREL);
+        helper.setBlock(pipePos, LogisticsPipe.BLOCK.STONE_TRANSPORT_PIPE);
+
+        helper.runAtTickTime(SETTLE_TICKS, () -> {
+            if (!(helper.getLevel().getBlockEntity(helper.absolutePos(pipePos)) instanceof PipeBlockEntity pipe)) {
+                helper.fail(Component.literal("Pipe block entity missing"));
+                return;
+            }
+            helper.assertTrue(!pipe.isScheduled(), Component.literal("Idle pipe did not go dormant"));
+
+            pipe.getItemBuffer().add(
+                    new ItemStack(Items.COBBLESTONE), Direction.EAST, LogisticsPipe.CONFIG.PIPE_MAX_SPEED, 0.9f, true);
+            pipe.scheduleWake(helper.getLevel().getGameTime() + WAKE_DELAY);
+        });
+
+        helper.succeedWhen(() -> {
+            boolean delivered = helper.getLevel().getBlockEntity(helper.absolutePos(barrelPos))
+                            instanceof Container barrel
+                    && barrel.countItem(Items.COBBLESTONE) == 1;
+            helper.assertTrue(delivered, Component.literal("Item never left the woken pipe"));
+        });
+    }
+
+    /**
+     * Phase 1 of the scheduler tick (module ticks, movement and item processing) must not allocate per pipe in
+     * steady state. Items circle a ring of pipes, so every pipe stays awake and routes items with no inventory
+     * involved; the only expected allocations are the sync ops queued for routed items.
+     */
+    @GameTest(
+            environment = "logistics_gametest:pipe_ring",
+            maxTicks = WARMUP_TICKS + MEASURE_TICKS + 20)
+    public void itemPhaseDoesNotAllocatePerPipe(GameTestHelper helper) {
+        List<BlockPos> ring = buildRing(helper);
+        // Items entering each pipe from the one before it, spread out so none of them merge
+        for (int i = 0; i < ring.size(); i++) {
+            BlockPos previous = ring.get(Math.floorMod(i - 1, ring.size()));
+            Direction direction = directionBetween(previous, ring.get(i));
+            if (helper.getLevel().getBlockEntity(helper.absolutePos(ring.get(i))) instanceof PipeBlockEntity pipe) {
+                for (int k = 0; k < RING_ITEMS.size(); k++) {
+                    pipe.getItemBuffer().add(new ItemStack(RING_ITEMS.get(k)), direction,
+                            LogisticsPipe.CONFIG.ITEM_MIN_SPEED, (float) k / RING_ITEMS.size(), false);
+                }
+            }
+        }
+
+        PipeScheduler scheduler = PipeScheduler.get(helper.getLevel());
+        long[] allocated = {0};
+        long[] pipeTicks = {0};
+        helper.onEachTick(() -> {
+            if (helper.getTick() > WARMUP_TICKS) {
+                allocated[0] += scheduler.getLastItemPhaseAllocatedBytes();
+                pipeTicks[0] += scheduler.getLastTickedCount();
+            }
+        });
+
+        helper.runAtTickTime(WARMUP_TICKS + MEASURE_TICKS, () -> {
+            helper.assertTrue(scheduler.getLastItemPhaseAllocatedBytes() >= 0,
+                    Component.literal("The JVM does not count allocations per thread"));
+            helper.assertTrue(pipeTicks[0] >= (long) ring.size() * (MEASURE_TICKS - 1),
+                    Component.literal("Only " + pipeTicks[0] + " pipe ticks while measuring"));
+            long perPipeTick = allocated[0] / pipeTicks[0];
+            helper.assertTrue(perPipeTick <= MAX_BYTES_PER_PIPE_TICK,
+                    Component.literal("Phase 1 allocated " + perPipeTick + " bytes per pipe per tick (" + allocated[0]
+                            + " bytes over " + pipeTicks[0] + " pipe ticks)"));
+            helper.succeed();
+        });
+    }
+
+    /**
+     * Places transport pipes around the edge of a square and returns their positions in order.
+     */
+    private static List<BlockPos> buildRing(GameTestHelper helper) {
+        List<BlockPos> ring = new ArrayList<>();
+        BlockPos pos = new BlockPos(1, 1, 1);
+        for (Direction side : List.of(Direction.EAST, Direction.SOUTH, Direction.WEST, Direction.NORTH)) {
+            for (int i = 0; i < RING_SIDE - 1; i++) {
+                ring.add(pos);
+                pos = pos.relative(side);
+            }
+        }
+        for (BlockPos pipe : ring) {
+            helper.setBlock(pipe, LogisticsPipe.BLOCK.STONE_TRANSPORT_PIPE);
+        }
+        return ring;
+    }
+
+    private static Direction directionBetween(BlockPos from, BlockPos to) {
+        for (Direction direction : Direction.values()) {
+            if (from.relative(direction).equals(to)) {
+                return direction;
+            }
+        }
+        throw new IllegalArgumentException(from + " and " + to + " are not adjacent");
+    }
+}
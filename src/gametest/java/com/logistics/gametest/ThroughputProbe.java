@@ -0,0 +1,115 @@
+package com.logistics.gametest;
+
+import com.logistics.pipe.block.entity.PipeBlockEntity;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.Container;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.phys.AABB;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Measures one layout while it runs: server tick times from the first tick after setup, plus counting helpers
+ * for containers, pipes and dropped items in the test area.
+ */
+final class ThroughputProbe {
+    // Dropped items fall out of the structure, so look a little beyond its bounds
+    private static final double DROP_SEARCH_MARGIN = 4.0;
+
+    private final GameTestHelper helper;
+    private long totalNanos = 0;
+    private long maxNanos = 0;
+    private int samples = 0;
+
+    private ThroughputProbe(GameTestHelper helper) {
+        this.helper = helper;
+    }
+
+    static ThroughputProbe start(GameTestHelper helper) {
+        ThroughputProbe probe = new ThroughputProbe(helper);
+        helper.onEachTick(probe::sample);
+        return probe;
+    }
+
+    private void sample() {
+        // Skip the tick the layout was built in
+        if (helper.getTick() == 0) {
+            return;
+        }
+
+        // The current tick is still running, so read the one before it
+        MinecraftServer server = helper.getLevel().getServer();
+        long[] tickTimes = server.getTickTimesNanos();
+        long nanos = tickTimes[Math.floorMod(server.getTickCount() - 1, tickTimes.length)];
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        samples++;
+    }
+
+    double meanTickMs() {
+        return samples == 0 ? 0.0 : totalNanos / (samples * 1_000_000.0);
+    }
+
+    double maxTickMs() {
+        return maxNanos / 1_000_000.0;
+    }
+
+    ThroughputReport.Result finish(
+            String layout, int ticks, long delivered, long dropped, long inFlight, double tickBudgetMs) {
+        ThroughputReport.Result result = new ThroughputReport.Result(
+                layout, ticks, delivered, dropped, inFlight, meanTickMs(), maxTickMs(), tickBudgetMs);
+        ThroughputReport.record(result);
+        return result;
+    }
+
+    /**
+     * Items in the container at {@code pos} (relative), optionally only of one item.
+     */
+    long countItems(BlockPos pos, @Nullable Item item) {
+        long total = 0;
+        if (helper.getLevel().getBlockEntity(helper.absolutePos(pos)) instanceof Container container) {
+            for (int slot = 0; slot < container.getContainerSize(); slot++) {
+                ItemStack stack = container.getItem(slot);
+                if (item == null || stack.is(item)) {
+                    total += stack.getCount();
+                }
+            }
+        }
+        return total;
+    }
+
+    long countItems(BlockPos pos) {
+        return countItems(pos, null);
+    }
+
+    /**
+     * Items still traveling inside the layout's pipes.
+     */
+    long countInFlight() {
+        AABB bounds = helper.getBounds();
+        long total = 0;
+        for (BlockPos pos : BlockPos.betweenClosed(
+                (int) Math.floor(bounds.minX), (int) Math.floor(bounds.minY), (int) Math.floor(bounds.minZ),
+                (int) Math.ceil(bounds.maxX) - 1, (int) Math.ceil(bounds.maxY) - 1, (int) Math.ceil(bounds.maxZ) - 1)) {
+            if (helper.getLevel().getBlockEntity(pos) instanceof PipeBlockEntity pipe) {
+                total += pipe.getTotalItemCount();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Items lying on the ground in or just around the test area.
+     */
+    long countDropped() {
+        long total = 0;
+        for (ItemEntity entity : helper.getLevel().getEntitiesOfClass(
+                ItemEntity.class, helper.getBounds().inflate(DROP_SEARCH_MARGIN), ItemEntity::isAlive)) {
+            total += entity.getItem().getCount();
+        }
+        return total;
+    }
+}
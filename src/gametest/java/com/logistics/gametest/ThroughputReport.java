@@ -0,0 +1,77 @@
+package com.logistics.gametest;
+
+import com.logistics.LogisticsMod;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects one {@link Result} per layout and keeps them in a JSON file, rewritten after every test so a run that
+ * dies half way still leaves the finished layouts behind.
+ *
+ * <p>The file is {@code -Dlogistics.gametest.report} (the Gradle build points it at
+ * build/reports/gametest/throughput.json), or logistics-throughput.json in the run directory.
+ */
+final class ThroughputReport {
+    private static final Path FILE =
+            Path.of(System.getProperty("logistics.gametest.report", "logistics-throughput.json"));
+    private static final List<Result> RESULTS = new ArrayList<>();
+
+    private ThroughputReport() {}
+
+    static synchronized void record(Result result) {
+        RESULTS.add(result);
+        LogisticsMod.LOGGER.info("Throughput {}", result.toJson());
+
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < RESULTS.size(); i++) {
+            json.append("  ").append(RESULTS.get(i).toJson()).append(i + 1 < RESULTS.size() ? ",\n" : "\n");
+        }
+        json.append("]\n");
+
+        try {
+            Path parent = FILE.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, "throughput", ".tmp");
+            Files.writeString(tmp, json, StandardCharsets.UTF_8);
+            Files.move(tmp, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LogisticsMod.LOGGER.warn("Failed to write throughput report {}", FILE, e);
+        }
+    }
+
+    /**
+     * @param delivered items that arrived in the layout's destination containers
+     * @param dropped items lying on the ground in or around the test area
+     * @param inFlight items still inside pipes when the test ended
+     * @param meanTickMs mean server tick time over the run
+     * @param maxTickMs slowest server tick over the run
+     * @param tickBudgetMs the mean tick time the layout is allowed
+     */
+    record Result(
+            String layout,
+            int ticks,
+            long delivered,
+            long dropped,
+            long inFlight,
+            double meanTickMs,
+            double maxTickMs,
+            double tickBudgetMs) {
+        boolean withinBudget() {
+            return meanTickMs <= tickBudgetMs;
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"layout\": \"%s\", \"ticks\": %d, \"delivered\": %d, \"dropped\": %d, "
+                            + "\"inFlight\": %d, \"meanTickMs\": %.3f, \"maxTickMs\": %.3f, \"tickBudgetMs\": %.1f, "
+                            + "\"withinBudget\": %b}",
+                    layout, ticks, delivered, dropped, inFlight, meanTickMs, maxTickMs, tickBudgetMs, withinBudget());
+        }
+    }
+}
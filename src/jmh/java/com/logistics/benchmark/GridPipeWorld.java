@@ -0,0 +1,155 @@
+package com.logistics.benchmark;
+
+import com.logistics.pipe.block.entity.PipeBlockEntity;
+import com.logistics.pipe.runtime.ItemHandoff;
+import com.logistics.pipe.runtime.PipeItemBuffer;
+import com.logistics.pipe.runtime.PipeWorld;
+import com.logistics.pipe.runtime.TransportPipe;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import java.util.Arrays;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * In-memory {@link PipeWorld}: pipes and item sinks on a block grid, no level, chunks or block entities.
+ *
+ * <p>Pipes accept items up to the same virtual capacity as real pipes. Sinks accept everything and only count
+ * what they receive. Handoffs queued by pipes run in {@link #runHandoffs}, after every pipe has processed its
+ * items, like the scheduler's phase 2.
+ */
+final class GridPipeWorld implements PipeWorld {
+    private final Long2ObjectOpenHashMap<SimPipe> pipes = new Long2ObjectOpenHashMap<>();
+    private final LongOpenHashSet sinks = new LongOpenHashSet();
+    private long gameTime = 0;
+    private long delivered = 0;
+    private long dropped = 0;
+
+    private SimPipe[] pendingPipes = new SimPipe[256];
+    private int[] pendingIds = new int[256];
+    private int pendingCount = 0;
+
+    SimPipe addPipe(BlockPos pos) {
+        SimPipe pipe = new SimPipe(this, pos.immutable());
+        pipes.put(pos.asLong(), pipe);
+        return pipe;
+    }
+
+    void addSink(BlockPos pos) {
+        sinks.add(pos.asLong());
+    }
+
+    @Override
+    public boolean isPipe(BlockPos pos) {
+        return pipes.containsKey(pos.asLong());
+    }
+
+    boolean isSink(BlockPos pos) {
+        return sinks.contains(pos.asLong());
+    }
+
+    void advanceTime() {
+        gameTime++;
+    }
+
+    /**
+     * Hand off every item queued since the last call, in queue order.
+     */
+    void runHandoffs() {
+        for (int i = 0; i < pendingCount; i++) {
+            SimPipe pipe = pendingPipes[i];
+            int index = pipe.items.indexOf(pendingIds[i]);
+            if (index >= 0) {
+                ItemHandoff.transfer(this, pipe.pos, pipe.items, index);
+            }
+            pendingPipes[i] = null;
+        }
+        pendingCount = 0;
+    }
+
+    private void deferHandoff(SimPipe pipe, int id) {
+        if (pendingCount == pendingPipes.length) {
+            pendingPipes = Arrays.copyOf(pendingPipes, pendingCount * 2);
+            pendingIds = Arrays.copyOf(pendingIds, pendingCount * 2);
+        }
+        pendingPipes[pendingCount] = pipe;
+        pendingIds[pendingCount] = id;
+        pendingCount++;
+    }
+
+    long getDelivered() {
+        return delivered;
+    }
+
+    long getDropped() {
+        return dropped;
+    }
+
+    @Override
+    public long getGameTime() {
+        return gameTime;
+    }
+
+    @Override
+    public long insertItem(BlockPos pos, Direction side, ItemStack stack, float speed) {
+        SimPipe pipe = pipes.get(pos.asLong());
+        if (pipe != null) {
+            PipeItemBuffer items = pipe.items;
+            int accepted = Math.min(stack.getCount(), PipeBlockEntity.VIRTUAL_CAPACITY - items.getTotalCount());
+            if (accepted <= 0) {
+                return 0;
+            }
+            // Entering through a side means traveling away from it
+            items.add(stack.copyWithCount(accepted), side.getOpposite(), speed, 0.0f, false);
+            return accepted;
+        }
+
+        if (sinks.contains(pos.asLong())) {
+            delivered += stack.getCount();
+            return stack.getCount();
+        }
+        return NO_STORAGE;
+    }
+
+    @Override
+    public void dropItem(BlockPos pos, ItemStack stack) {
+        dropped += stack.getCount();
+    }
+
+    /**
+     * A pipe without modules: items move with the default physics and pick a random connected exit.
+     */
+    static final class SimPipe implements TransportPipe {
+        private final GridPipeWorld world;
+        final BlockPos pos;
+        final PipeItemBuffer items = new PipeItemBuffer();
+        // Sides with a pipe or sink next to them (a DirectionMask)
+        int connections;
+
+        private SimPipe(GridPipeWorld world, BlockPos pos) {
+            this.world = world;
+            this.pos = pos;
+        }
+
+        @Override
+        public BlockPos getBlockPos() {
+            return pos;
+        }
+
+        @Override
+        public PipeItemBuffer getItemBuffer() {
+            return items;
+        }
+
+        @Override
+        public int getConnectionMask() {
+            return connections;
+        }
+
+        @Override
+        public void deferHandoff(int itemId) {
+            world.deferHandoff(this, itemId);
+        }
+    }
+}
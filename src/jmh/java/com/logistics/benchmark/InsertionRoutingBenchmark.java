@@ -0,0 +1,135 @@
+package com.logistics.benchmark;
+
+import com.logistics.pipe.modules.InsertionModule;
+import com.logistics.pipe.runtime.RoutePlan;
+import com.logistics.pipe.runtime.TravelingItem;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Insertion pipe routing at the center ({@link InsertionModule#route(InsertionModule.Sides, TravelingItem, List)})
+ * for a pipe with inventories east and west and pipes north and south.
+ *
+ * <p>Inventory capacities are fixed numbers rather than simulated inserts into Transfer API storages:
+ * {@code ItemVariant} relies on Fabric mixins that do not run on the benchmark bootstrap. The per-tick capacity
+ * snapshot in front of the storages is covered by the insertion array throughput GameTest instead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertionRoutingBenchmark {
+    private static final int ITEMS = 256;
+    private static final int STACK_SIZE = 16;
+    private static final BlockPos POS = new BlockPos(12, 64, -40);
+    // Items enter from below; the top is not connected
+    private static final List<Direction> OPTIONS =
+            List.of(Direction.NORTH, Direction.SOUTH, Direction.WEST, Direction.EAST);
+
+    /**
+     * Room in each inventory: enough for a whole stack (reroute to an inventory), part of one (split between
+     * the inventories and a pipe) or none (reroute to a random pipe).
+     */
+    @Param({"space", "partial", "full"})
+    public String inventories;
+
+    private final TravelingItem[] items = new TravelingItem[ITEMS];
+    private FixedSides sides;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MinecraftBootstrap.init();
+        long capacity = switch (inventories) {
+            case "space" -> 64;
+            case "partial" -> STACK_SIZE / 4;
+            case "full" -> 0;
+            default -> throw new IllegalArgumentException("Unknown inventories " + inventories);
+        };
+        sides = new FixedSides(capacity);
+
+        ItemStack stack = new ItemStack(Items.COBBLESTONE, STACK_SIZE);
+        for (int i = 0; i < ITEMS; i++) {
+            items[i] = new TravelingItem(stack, Direction.UP, 0.08f);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public int routeAtCenter() {
+        sides.gameTime++;
+        int routed = 0;
+        for (TravelingItem item : items) {
+            RoutePlan plan = InsertionModule.route(sides, item, OPTIONS);
+            routed += plan.getType().ordinal();
+        }
+        return routed;
+    }
+
+    /**
+     * Inventories east and west with the same room for every variant, pipes north and south, nothing reserved
+     * and no remote inventories.
+     */
+    private static final class FixedSides implements InsertionModule.Sides {
+        private final long capacity;
+        long gameTime = 0;
+
+        FixedSides(long capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public BlockPos getPos() {
+            return POS;
+        }
+
+        @Override
+        public long getGameTime() {
+            return gameTime;
+        }
+
+        @Override
+        public boolean isInventory(Direction side) {
+            return side == Direction.EAST || side == Direction.WEST;
+        }
+
+        @Override
+        public boolean isPipe(Direction side) {
+            return side == Direction.NORTH || side == Direction.SOUTH;
+        }
+
+        @Override
+        public long getCapacity(Direction side, ItemStack stack) {
+            return capacity;
+        }
+
+        @Override
+        public long getReserved(Direction side, ItemStack stack) {
+            return 0;
+        }
+
+        @Override
+        @Nullable public Direction nextHopToRemoteInventory(ItemStack stack, int pipeMask) {
+            return null;
+        }
+    }
+}
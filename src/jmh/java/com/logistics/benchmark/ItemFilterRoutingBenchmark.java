@@ -0,0 +1,85 @@
+package com.logistics.benchmark;
+
+import com.logistics.pipe.modules.ItemFilterModule;
+import com.logistics.pipe.runtime.DirectionMask;
+import com.logistics.pipe.runtime.RoutePlan;
+import com.logistics.pipe.runtime.TravelingItem;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.core.Direction;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Filter pipe routing at the center ({@link ItemFilterModule.CompiledFilters#route}, what
+ * {@code ItemFilterModule.route} runs once the filters are compiled) for a mix of matching and unmatched items.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemFilterRoutingBenchmark {
+    private static final int ITEMS = 256;
+    // Items enter from below, so every other side is an option
+    private static final int OPTION_MASK = DirectionMask.ALL & ~DirectionMask.bit(Direction.DOWN);
+    private static final Item[] FILTERED = {Items.COBBLESTONE, Items.DIRT, Items.SAND, Items.GRAVEL, Items.OAK_LOG};
+
+    /**
+     * Number of sides with a filter, each matching one item type: one sorted side next to four overflow sides,
+     * or every option filtered (unmatched items then have nowhere to go).
+     */
+    @Param({"1", "5"})
+    public int filteredSides;
+
+    private final TravelingItem[] items = new TravelingItem[ITEMS];
+    private ItemFilterModule.CompiledFilters filters;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MinecraftBootstrap.init();
+        CompoundTag tag = new CompoundTag();
+        for (int i = 0; i < filteredSides; i++) {
+            ListTag list = new ListTag();
+            list.add(StringTag.valueOf(BuiltInRegistries.ITEM.getKey(FILTERED[i]).toString()));
+            tag.put(ItemFilterModule.FILTER_ORDER[i].getName(), list);
+        }
+        filters = ItemFilterModule.CompiledFilters.compile(tag);
+
+        // Every filtered item type plus one that no filter matches
+        for (int i = 0; i < ITEMS; i++) {
+            int type = i % (FILTERED.length + 1);
+            Item item = type == FILTERED.length ? Items.STONE : FILTERED[type];
+            items[i] = new TravelingItem(new ItemStack(item, 8), Direction.UP, 0.08f);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public int routeAtCenter() {
+        int routed = 0;
+        for (TravelingItem item : items) {
+            RoutePlan plan = filters.route(item, OPTION_MASK);
+            routed += plan.getDirections().size();
+        }
+        return routed;
+    }
+}
@@ -0,0 +1,87 @@
+package com.logistics.benchmark;
+
+import com.logistics.pipe.runtime.DirectionMask;
+import com.logistics.pipe.runtime.PipeItemBuffer;
+import com.logistics.pipe.runtime.PipeRandom;
+import com.logistics.pipe.runtime.RoutePlan;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Default routing at the pipe center, as done by {@code PipeRuntime} when no module decides: mask out the side
+ * the item came from, build the shared reroute plan and pick an exit with {@link PipeRandom}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JunctionRoutingBenchmark {
+    private static final int ITEMS = 256;
+    private static final BlockPos POS = new BlockPos(12, 64, -40);
+
+    /**
+     * Number of exits besides the entry side: a straight pipe (1), a tee (2) or a full cross (5 exits, 6 arms).
+     */
+    @Param({"1", "2", "6"})
+    public int ways;
+
+    private final PipeItemBuffer buffer = new PipeItemBuffer();
+    private int connectedMask;
+    private long gameTime = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MinecraftBootstrap.init();
+        // Items travel north, so they enter through the south arm
+        connectedMask = DirectionMask.bit(Direction.SOUTH) | DirectionMask.bit(Direction.NORTH);
+        if (ways >= 2) {
+            connectedMask |= DirectionMask.bit(Direction.EAST);
+        }
+        if (ways >= 6) {
+            connectedMask = DirectionMask.ALL;
+        }
+
+        ItemStack stack = new ItemStack(Items.COBBLESTONE, 8);
+        for (int i = 0; i < ITEMS; i++) {
+            buffer.add(stack, Direction.NORTH, 0.08f, 0.5f, false);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public int routeAtCenter() {
+        gameTime++;
+        int routed = 0;
+        for (int i = 0; i < buffer.size(); i++) {
+            Direction current = buffer.getDirection(i);
+            int validMask = connectedMask & ~DirectionMask.bit(current.getOpposite());
+            RoutePlan plan = RoutePlan.reroute(validMask);
+            List<Direction> candidates = plan.getDirections();
+            Direction chosen = candidates.size() == 1
+                    ? candidates.getFirst()
+                    : PipeRandom.chooseDirection(gameTime, POS, current, candidates);
+            // Directions are left unchanged, so every invocation routes the same items from the same side
+            routed += chosen.get3DDataValue();
+        }
+        return routed;
+    }
+}
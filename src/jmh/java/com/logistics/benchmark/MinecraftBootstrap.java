@@ -0,0 +1,24 @@
+package com.logistics.benchmark;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+
+/**
+ * Vanilla registry bootstrap for benchmarks that create item stacks or use codecs.
+ *
+ * <p>Benchmarks run in a plain JVM: only vanilla content is registered, mod entrypoints and mixins do not run.
+ * Benchmarked code must therefore not touch the mod's registered blocks, items or block entity types.
+ */
+final class MinecraftBootstrap {
+    private static boolean initialized = false;
+
+    private MinecraftBootstrap() {}
+
+    static synchronized void init() {
+        if (!initialized) {
+            SharedConstants.tryDetectVersion();
+            Bootstrap.bootStrap();
+            initialized = true;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.logistics.benchmark;
+
+import com.logistics.pipe.runtime.PipeItemBuffer;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The traveling-item part of a pipe's saved data ({@link PipeItemBuffer#save}/{@link PipeItemBuffer#load},
+ * called by the pipe block entity), which is what grows with the item count. The rest of the block entity
+ * (module state, connections) needs the mod's registered block entity type and is not covered.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+    @Param({"0", "10", "300"})
+    public int items;
+
+    private final PipeItemBuffer buffer = new PipeItemBuffer();
+    private final PipeItemBuffer target = new PipeItemBuffer();
+    private CompoundTag saved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MinecraftBootstrap.init();
+        // A mix of items so the saved list is not one repeated entry
+        ItemStack[] stacks = {
+            new ItemStack(Items.COBBLESTONE, 64), new ItemStack(Items.IRON_INGOT, 7), new ItemStack(Items.OAK_LOG, 1)
+        };
+        Direction[] directions = Direction.values();
+        for (int i = 0; i < items; i++) {
+            buffer.add(stacks[i % stacks.length], directions[i % directions.length], 0.02f + i * 1.0e-4f,
+                    (i % 100) / 100.0f, i % 2 == 0);
+        }
+        saved = new CompoundTag();
+        buffer.save(saved);
+    }
+
+    @Benchmark
+    public CompoundTag savePipeItems() {
+        CompoundTag pipeData = new CompoundTag();
+        buffer.save(pipeData);
+        return pipeData;
+    }
+
+    @Benchmark
+    public PipeItemBuffer loadPipeItems() {
+        target.load(saved);
+        return target;
+    }
+}
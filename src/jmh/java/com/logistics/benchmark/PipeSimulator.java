@@ -0,0 +1,174 @@
+package com.logistics.benchmark;
+
+import com.logistics.LogisticsPipe;
+import com.logistics.pipe.runtime.DirectionMask;
+import com.logistics.pipe.runtime.ItemHandoff;
+import com.logistics.pipe.runtime.PipeRuntime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+
+/**
+ * Headless pipe network simulator on a {@link GridPipeWorld}.
+ *
+ * <p>Runs the same transport code as the game for pipes without modules: {@link PipeRuntime#advanceItems}
+ * movement, {@link PipeRuntime#processItems} for routing at the center and queueing handoffs (including the
+ * stalled-item back-off), and end-of-segment handoffs through {@link ItemHandoff} after every pipe has moved
+ * (the scheduler's phase 2). Modules, client sync and saving are not simulated.
+ *
+ * <p>Run directly for a throughput and memory report, e.g.
+ * {@code java -cp <jmh runtime classpath> com.logistics.benchmark.PipeSimulator lattice 100000 1200}.
+ */
+public final class PipeSimulator {
+    private static final Direction[] HORIZONTAL = {Direction.NORTH, Direction.SOUTH, Direction.WEST, Direction.EAST};
+    private static final int Y = 64;
+
+    private final GridPipeWorld world = new GridPipeWorld();
+    private final List<GridPipeWorld.SimPipe> pipes = new ArrayList<>();
+    private final List<Source> sources = new ArrayList<>();
+    private final ItemStack sourceStack;
+    private final int sourceInterval;
+
+    private long injected = 0;
+
+    private PipeSimulator(ItemStack sourceStack, int sourceInterval) {
+        this.sourceStack = sourceStack;
+        this.sourceInterval = sourceInterval;
+    }
+
+    /**
+     * Source, {@code length} pipes in a row along +X, sink.
+     */
+    public static PipeSimulator line(int length) {
+        PipeSimulator simulator = new PipeSimulator(new ItemStack(Items.COBBLESTONE, 16), 10);
+        for (int x = 0; x < length; x++) {
+            simulator.addPipe(new BlockPos(x, Y, 0));
+        }
+        simulator.world.addSink(new BlockPos(length, Y, 0));
+        simulator.sources.add(new Source(new BlockPos(0, Y, 0), Direction.WEST));
+        simulator.connect();
+        return simulator;
+    }
+
+    /**
+     * A square grid of about {@code pipeCount} interconnected pipes. Every pipe on the north edge is fed from
+     * the north; sinks surround the other three edges, so items random-walk until they leave the grid.
+     */
+    public static PipeSimulator lattice(int pipeCount) {
+        int side = Math.max(2, (int) Math.round(Math.sqrt(pipeCount)));
+        PipeSimulator simulator = new PipeSimulator(new ItemStack(Items.COBBLESTONE, 4), 20);
+        for (int z = 0; z < side; z++) {
+            for (int x = 0; x < side; x++) {
+                simulator.addPipe(new BlockPos(x, Y, z));
+            }
+        }
+        for (int i = 0; i < side; i++) {
+            simulator.world.addSink(new BlockPos(-1, Y, i));
+            simulator.world.addSink(new BlockPos(side, Y, i));
+            simulator.world.addSink(new BlockPos(i, Y, side));
+            simulator.sources.add(new Source(new BlockPos(i, Y, 0), Direction.NORTH));
+        }
+        simulator.connect();
+        return simulator;
+    }
+
+    private void addPipe(BlockPos pos) {
+        pipes.add(world.addPipe(pos));
+    }
+
+    private void connect() {
+        for (GridPipeWorld.SimPipe pipe : pipes) {
+            for (Direction direction : HORIZONTAL) {
+                BlockPos neighbor = pipe.pos.relative(direction);
+                if (world.isPipe(neighbor) || world.isSink(neighbor)) {
+                    pipe.connections |= DirectionMask.bit(direction);
+                }
+            }
+        }
+    }
+
+    /**
+     * One game tick: feed the sources, move every item, route items at the center, then hand off items that
+     * reached the end of their segment.
+     */
+    public void tick() {
+        world.advanceTime();
+        if (world.getGameTime() % sourceInterval == 0) {
+            for (Source source : sources) {
+                long inserted =
+                        world.insertItem(source.pipe, source.side, sourceStack, LogisticsPipe.CONFIG.ITEM_MIN_SPEED);
+                injected += Math.max(0, inserted);
+            }
+        }
+
+        for (GridPipeWorld.SimPipe pipe : pipes) {
+            PipeRuntime.advanceItems(
+                    pipe.items, 0.0f, LogisticsPipe.CONFIG.DRAG_COEFFICIENT, LogisticsPipe.CONFIG.PIPE_MAX_SPEED);
+        }
+
+        for (GridPipeWorld.SimPipe pipe : pipes) {
+            PipeRuntime.processItems(world, pipe);
+        }
+
+        world.runHandoffs();
+    }
+
+    public int getPipeCount() {
+        return pipes.size();
+    }
+
+    public long getInjected() {
+        return injected;
+    }
+
+    public long getDelivered() {
+        return world.getDelivered();
+    }
+
+    public long getDropped() {
+        return world.getDropped();
+    }
+
+    public long getItemsInFlight() {
+        long total = 0;
+        for (GridPipeWorld.SimPipe pipe : pipes) {
+            total += pipe.items.getTotalCount();
+        }
+        return total;
+    }
+
+    public static void main(String[] args) {
+        String topology = args.length > 0 ? args[0] : "lattice";
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int ticks = args.length > 2 ? Integer.parseInt(args[2]) : 1200;
+
+        MinecraftBootstrap.init();
+        PipeSimulator simulator = switch (topology) {
+            case "line" -> line(size);
+            case "lattice" -> lattice(size);
+            default -> throw new IllegalArgumentException("Unknown topology " + topology + " (line or lattice)");
+        };
+
+        long start = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++) {
+            simulator.tick();
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long usedMb = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+        System.out.printf(Locale.ROOT, "%s: %d pipes, %d ticks in %.0f ms (%.3f ms/tick)%n",
+                topology, simulator.getPipeCount(), ticks, millis, millis / ticks);
+        System.out.printf(Locale.ROOT, "items: %d injected, %d delivered, %d dropped, %d in flight%n",
+                simulator.getInjected(), simulator.getDelivered(), simulator.getDropped(),
+                simulator.getItemsInFlight());
+        System.out.printf(Locale.ROOT, "heap used after GC: %d MB%n", usedMb);
+    }
+
+    private record Source(BlockPos pipe, Direction side) {}
+}
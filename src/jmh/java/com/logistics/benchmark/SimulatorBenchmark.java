@@ -0,0 +1,47 @@
+package com.logistics.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One tick of a large headless network ({@link PipeSimulator#lattice}), after it has filled up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+public class SimulatorBenchmark {
+    private static final int FILL_TICKS = 600;
+
+    @Param({"1000", "100000"})
+    public int pipes;
+
+    private PipeSimulator simulator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MinecraftBootstrap.init();
+        simulator = PipeSimulator.lattice(pipes);
+        for (int tick = 0; tick < FILL_TICKS; tick++) {
+            simulator.tick();
+        }
+    }
+
+    @Benchmark
+    public void tick() {
+        simulator.tick();
+    }
+}
@@ -0,0 +1,111 @@
+package com.logistics.benchmark;
+
+import com.logistics.LogisticsPipe;
+import com.logistics.pipe.block.entity.PipeBlockEntity;
+import com.logistics.pipe.runtime.PipeItemBuffer;
+import com.logistics.pipe.runtime.TravelingItem;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.core.Direction;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Item movement per tick: {@link TravelingItem#tick} for each speed branch, and {@link PipeItemBuffer#advance}
+ * over a full pipe.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TravelingItemBenchmark {
+    private static final int ITEMS = 1024;
+    // A pipe filled to its virtual capacity with single items, the worst case for one pipe
+    private static final int BUFFER_ITEMS = PipeBlockEntity.VIRTUAL_CAPACITY;
+
+    /**
+     * ACCELERATE: powered pipe. DRAG: unpowered pipe. DECELERATE: item faster than the pipe's max speed.
+     */
+    @Param({"ACCELERATE", "DRAG", "DECELERATE"})
+    public String branch;
+
+    private final TravelingItem[] items = new TravelingItem[ITEMS];
+    private final PipeItemBuffer buffer = new PipeItemBuffer();
+    private float accelerationRate;
+    private float dragCoefficient;
+    private float maxSpeed;
+    private float startSpeed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MinecraftBootstrap.init();
+        maxSpeed = LogisticsPipe.CONFIG.PIPE_MAX_SPEED;
+        switch (branch) {
+            case "ACCELERATE" -> {
+                accelerationRate = LogisticsPipe.CONFIG.ACCELERATION_RATE;
+                startSpeed = LogisticsPipe.CONFIG.ITEM_MIN_SPEED;
+            }
+            case "DRAG" -> {
+                dragCoefficient = LogisticsPipe.CONFIG.DRAG_COEFFICIENT;
+                startSpeed = maxSpeed * 0.5f;
+            }
+            case "DECELERATE" -> startSpeed = maxSpeed * 2.0f;
+            default -> throw new IllegalArgumentException(branch);
+        }
+
+        ItemStack stack = new ItemStack(Items.COBBLESTONE, 64);
+        for (int i = 0; i < ITEMS; i++) {
+            items[i] = new TravelingItem(stack, Direction.NORTH, startSpeed);
+        }
+        for (int i = 0; i < BUFFER_ITEMS; i++) {
+            buffer.add(stack, Direction.NORTH, startSpeed, 0.0f, false);
+        }
+    }
+
+    /**
+     * Put every item back at the segment start with its branch's speed, so each invocation measures the same
+     * branch instead of drifting toward the speed limits.
+     */
+    @Setup(Level.Invocation)
+    public void reset() {
+        for (TravelingItem item : items) {
+            item.setSpeed(startSpeed);
+            item.setProgress(0.0f);
+        }
+        for (int i = 0; i < buffer.size(); i++) {
+            buffer.setSpeed(i, startSpeed);
+            buffer.setProgress(i, 0.0f);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void travelingItemTick(Blackhole blackhole) {
+        for (TravelingItem item : items) {
+            blackhole.consume(item.tick(accelerationRate, dragCoefficient, maxSpeed));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BUFFER_ITEMS)
+    public void bufferAdvance() {
+        for (int i = 0; i < buffer.size(); i++) {
+            buffer.advance(i, accelerationRate, dragCoefficient, maxSpeed);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.logistics.benchmark;
+
+import com.logistics.pipe.runtime.TravelingItem;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link TravelingItem#CODEC} encode and decode of one item to and from NBT.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TravelingItemCodecBenchmark {
+    private TravelingItem item;
+    private Tag encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MinecraftBootstrap.init();
+        item = new TravelingItem(new ItemStack(Items.IRON_INGOT, 16), Direction.EAST, 0.05f);
+        encoded = TravelingItem.CODEC.encodeStart(NbtOps.INSTANCE, item).getOrThrow();
+    }
+
+    @Benchmark
+    public Tag encode() {
+        return TravelingItem.CODEC.encodeStart(NbtOps.INSTANCE, item).getOrThrow();
+    }
+
+    @Benchmark
+    public TravelingItem decode() {
+        return TravelingItem.CODEC.parse(NbtOps.INSTANCE, encoded).getOrThrow();
+    }
+}
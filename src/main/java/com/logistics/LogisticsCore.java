@@ -1,10 +1,19 @@
 package com.logistics;
 
 import com.logistics.core.bootstrap.DomainBootstrap;
+import com.logistics.core.command.LogisticsCommand;
 import com.logistics.core.item.ProbeItem;
 import com.logistics.core.item.WrenchItem;
+import com.logistics.core.lib.metrics.MetricsExporter;
+import com.logistics.core.lib.support.DropAggregator;
+import com.logistics.core.lib.support.TickProfiler;
 import com.logistics.core.marker.MarkerBlock;
 import com.logistics.core.marker.MarkerBlockEntity;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
 import net.fabricmc.fabric.api.itemgroup.v1.FabricItemGroup;
 import net.minecraft.core.Registry;
 import net.minecraft.core.registries.BuiltInRegistries;
@@ -40,6 +49,29 @@ public final class LogisticsCore extends LogisticsMod implements DomainBootstrap
 
         registerLegacyAliases();
         addCreativeTabEntries();
+        registerDropAggregator();
+        registerCommands();
+        registerMetricsExporter();
+    }
+
+    private static void registerCommands() {
+        CommandRegistrationCallback.EVENT.register(
+                (dispatcher, registryAccess, environment) -> LogisticsCommand.register(dispatcher));
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> TickProfiler.stop(server.getTickCount()));
+    }
+
+    private static void registerDropAggregator() {
+        // Spawn queued drops after the default phase, so drops from this tick's pipe and machine logic
+        // are spawned in the same tick
+        Identifier flushPhase = identifier("drop_flush");
+        ServerTickEvents.END_WORLD_TICK.addPhaseOrdering(Event.DEFAULT_PHASE, flushPhase);
+        ServerTickEvents.END_WORLD_TICK.register(flushPhase, DropAggregator::flushLevel);
+        ServerWorldEvents.UNLOAD.register((server, world) -> DropAggregator.clear(world));
+    }
+
+    private static void registerMetricsExporter() {
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> MetricsExporter.start());
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> MetricsExporter.stop());
     }
 
     @Override
@@ -47,6 +79,20 @@ public final class LogisticsCore extends LogisticsMod implements DomainBootstrap
         return -100;
     }
 
+    public static final class CONFIG {
+        // Metrics export (see MetricsExporter), set with JVM system properties, e.g. -Dlogistics.metrics.port=9464.
+        // Port of the Prometheus endpoint on 127.0.0.1; 0 disables it.
+        public static final int METRICS_PORT = Integer.getInteger("logistics.metrics.port", 0);
+
+        // File the metrics are periodically written to (e.g. node-exporter textfile collector); empty disables it.
+        public static final String METRICS_FILE = System.getProperty("logistics.metrics.file", "");
+
+        // Seconds between metrics file writes.
+        public static final int METRICS_FILE_INTERVAL_SECONDS = Integer.getInteger("logistics.metrics.interval", 15);
+
+        private CONFIG() {}
+    }
+
     public static final class BLOCK {
         public static final Block MARKER = INSTANCE.registerBlockWithItem("marker",
             props -> new MarkerBlock(props.strength(0.0f).sound(SoundType.WOOD).noCollision()));
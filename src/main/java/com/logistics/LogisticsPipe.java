@@ -10,8 +10,14 @@ import com.logistics.pipe.block.PipeBlock;
 import com.logistics.pipe.block.entity.PipeBlockEntity;
 import com.logistics.pipe.data.PipeDataComponents.WeatheringState;
 import com.logistics.pipe.item.ModularPipeBlockItem;
+import com.logistics.pipe.network.PipeSyncPayload;
+import com.logistics.pipe.runtime.PipeScheduler;
 import com.logistics.pipe.ui.ItemFilterScreenHandler;
 import net.minecraft.core.component.DataComponentType;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerBlockEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
 import net.minecraft.core.Registry;
 import net.minecraft.core.registries.BuiltInRegistries;
@@ -70,6 +76,25 @@ public final class LogisticsPipe extends LogisticsMod implements DomainBootstrap
         // Register pipe-to-pipe connections (pipes accept connections from all sides)
         PipeConnectionRegistry.SIDED.registerForBlockEntity(
                 (pipeEntity, direction) -> pipeEntity, LogisticsPipe.ENTITY.PIPE_BLOCK_ENTITY);
+
+        registerScheduler();
+        registerNetworking();
+    }
+
+    private static void registerNetworking() {
+        // Incremental pipe updates (full block entity data is only sent on chunk load)
+        PayloadTypeRegistry.playS2C().register(PipeSyncPayload.TYPE, PipeSyncPayload.STREAM_CODEC);
+    }
+
+    private static void registerScheduler() {
+        // Server pipes are ticked from one loop per level instead of vanilla block entity tickers
+        ServerBlockEntityEvents.BLOCK_ENTITY_LOAD.register((blockEntity, world) -> {
+            if (blockEntity instanceof PipeBlockEntity pipeEntity) {
+                pipeEntity.wake();
+            }
+        });
+        ServerTickEvents.END_WORLD_TICK.register(PipeScheduler::tickLevel);
+        ServerWorldEvents.UNLOAD.register((server, world) -> PipeScheduler.clear(world));
     }
 
     private static void addCreativeTabEntries() {
@@ -102,6 +127,8 @@ public final class LogisticsPipe extends LogisticsMod implements DomainBootstrap
                 BLOCK.ITEM_MERGER_PIPE,
                 BLOCK.GOLD_TRANSPORT_PIPE,
                 BLOCK.ITEM_FILTER_PIPE,
+                BLOCK.ITEM_BULK_EXTRACTOR_PIPE,
+                BLOCK.ITEM_BALANCER_PIPE,
                 BLOCK.ITEM_INSERTION_PIPE,
                 BLOCK.ITEM_VOID_PIPE
         );
@@ -125,6 +152,10 @@ public final class LogisticsPipe extends LogisticsMod implements DomainBootstrap
             props -> new PipeBlock(createPipeProperties(props), PipeTypes.GOLD_TRANSPORT));
         public static final Block ITEM_FILTER_PIPE = INSTANCE.registerBlockWithItem("item_filter_pipe",
             props -> new PipeBlock(createPipeProperties(props), PipeTypes.ITEM_FILTER));
+        public static final Block ITEM_BULK_EXTRACTOR_PIPE = INSTANCE.registerBlockWithItem("item_bulk_extractor_pipe",
+            props -> new PipeBlock(createPipeProperties(props), PipeTypes.ITEM_BULK_EXTRACTOR));
+        public static final Block ITEM_BALANCER_PIPE = INSTANCE.registerBlockWithItem("item_balancer_pipe",
+            props -> new PipeBlock(createPipeProperties(props), PipeTypes.ITEM_BALANCER));
         public static final Block ITEM_INSERTION_PIPE = INSTANCE.registerBlockWithItem("item_insertion_pipe",
             props -> new PipeBlock(createPipeProperties(props), PipeTypes.ITEM_INSERTION));
         public static final Block ITEM_VOID_PIPE = INSTANCE.registerBlockWithItem("item_void_pipe",
@@ -178,6 +209,14 @@ public final class LogisticsPipe extends LogisticsMod implements DomainBootstrap
         // Individual pipes can override this up or down via getMaxSpeed.
         public static final float PIPE_MAX_SPEED = 0.16f;
 
+        // Maximum progress difference for two identical items in the same pipe to be merged into one stack.
+        // One tick of travel at ITEM_MIN_SPEED, so merging never moves an item by more than a tick.
+        public static final float ITEM_MERGE_DISTANCE = ITEM_MIN_SPEED;
+
+        // Pipes ticking in one level before item movement is spread over worker threads (see PipeScheduler).
+        // Below this the fork/join overhead outweighs the work. Set to Integer.MAX_VALUE to stay single-threaded.
+        public static final int PARALLEL_MOVEMENT_THRESHOLD = 512;
+
         private static final int MARKING_FLUID_USES = 16;
 
         private CONFIG() {}
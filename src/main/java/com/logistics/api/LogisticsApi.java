@@ -30,13 +30,13 @@ public final class LogisticsApi {
             }
 
             @Override
-            public boolean tryInsert(ServerLevel world, BlockPos targetPos, ItemStack stack, Direction from) {
-                return false;
+            public int tryInsert(ServerLevel world, BlockPos targetPos, ItemStack stack, Direction from) {
+                return 0;
             }
 
             @Override
-            public boolean forceInsert(ServerLevel world, BlockPos targetPos, ItemStack stack, Direction from) {
-                return false;
+            public int forceInsert(ServerLevel world, BlockPos targetPos, ItemStack stack, Direction from) {
+                return 0;
             }
         }
     }
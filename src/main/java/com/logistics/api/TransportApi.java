@@ -10,13 +10,15 @@ public interface TransportApi {
     boolean isTransportBlock(BlockState state);
 
     /**
-     * @return true if accepted; false to let callers fall back to inventory/drop handling.
+     * Insert as much of the stack as the transport block accepts. The stack is not modified and nothing is
+     * dropped; the caller keeps whatever was not accepted.
+     * @return the number of items accepted; 0 if the block is full, refuses the stack or is not a transport block.
      */
-    boolean tryInsert(ServerLevel world, BlockPos targetPos, ItemStack stack, Direction from);
+    int tryInsert(ServerLevel world, BlockPos targetPos, ItemStack stack, Direction from);
 
     /**
-     * Force insertion, bypassing ingress checks where possible.
-     * @return true if accepted; false to let callers fall back to inventory/drop handling.
+     * Like {@link #tryInsert}, but bypassing ingress checks where possible. Capacity still applies.
+     * @return the number of items accepted; 0 if the block is full or is not a transport block.
      */
-    boolean forceInsert(ServerLevel world, BlockPos targetPos, ItemStack stack, Direction from);
+    int forceInsert(ServerLevel world, BlockPos targetPos, ItemStack stack, Direction from);
 }
@@ -8,8 +8,12 @@ import com.logistics.automation.laserquarry.LaserQuarryConfig;
 import com.logistics.automation.laserquarry.LaserQuarryFrameBlock;
 import com.logistics.LogisticsAutomation;
 import com.logistics.automation.render.ClientRenderCacheHooks;
+import com.logistics.core.lib.jfr.QuarryMineEvent;
+import com.logistics.core.lib.metrics.LogisticsMetrics;
 import com.logistics.core.lib.pipe.PipeConnection;
+import com.logistics.core.lib.support.DropAggregator;
 import com.logistics.core.lib.support.ProbeResult;
+import com.logistics.core.lib.support.TickProfiler;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -33,7 +37,9 @@ import net.minecraft.world.level.storage.ValueOutput;
 import net.minecraft.ChatFormatting;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
 import org.jetbrains.annotations.Nullable;
 
 public class LaserQuarryBlockEntity extends BlockEntity implements PipeConnection {
@@ -102,6 +108,9 @@ public class LaserQuarryBlockEntity extends BlockEntity implements PipeConnectio
     private float armY = 0f; // Current arm Y position (absolute world coords)
     private float armZ = 0f; // Current arm Z position (absolute world coords)
     private boolean armInitialized = false; // Whether arm position has been set
+
+    // Output the transport block above refused; mining pauses until it has been handed over
+    private final List<ItemStack> heldOutput = new ArrayList<>();
     private int settlingTicksRemaining = 0; // Countdown for SETTLING state
     private int expectedTravelTicks = 0; // Expected ticks to reach target (for settling calculation)
     private float syncedArmSpeed = LaserQuarryConfig.ARM_SPEED; // Speed synced to clients for interpolation
@@ -117,19 +126,27 @@ public class LaserQuarryBlockEntity extends BlockEntity implements PipeConnectio
             return;
         }
 
-        registerActiveQuarry((ServerLevel) world, pos);
+        long start = TickProfiler.begin(world);
+        tickServer((ServerLevel) world, pos, state, entity);
+        TickProfiler.recordBlock(world, pos, "laser_quarry", start);
+    }
+
+    private static void tickServer(ServerLevel world, BlockPos pos, BlockState state, LaserQuarryBlockEntity entity) {
+        registerActiveQuarry(world, pos);
 
+        // A jammed pipe above backs up into the quarry instead of spilling mined items on the ground
+        boolean outputClear = entity.flushHeldOutput(world);
         if (entity.finished) {
             return;
         }
 
-        ServerLevel serverWorld = (ServerLevel) world;
-
-        switch (entity.currentPhase) {
-            case CLEARING -> tickClearing(serverWorld, pos, state, entity);
-            case BUILDING_FRAME -> tickBuildingFrame(serverWorld, pos, state, entity);
-            case MINING -> tickMining(serverWorld, pos, state, entity);
-            default -> {}
+        if (outputClear) {
+            switch (entity.currentPhase) {
+                case CLEARING -> tickClearing(world, pos, state, entity);
+                case BUILDING_FRAME -> tickBuildingFrame(world, pos, state, entity);
+                case MINING -> tickMining(world, pos, state, entity);
+                default -> {}
+            }
         }
 
         // Sync energy and arm speed to clients when energy changes
@@ -469,6 +486,9 @@ public class LaserQuarryBlockEntity extends BlockEntity implements PipeConnectio
     }
 
     private void mineBlock(ServerLevel world, BlockPos target, BlockState targetState) {
+        QuarryMineEvent event = new QuarryMineEvent();
+        event.begin();
+
         // Get drops before breaking the block
         BlockEntity blockEntity = world.getBlockEntity(target);
         List<ItemStack> drops = Block.getDrops(targetState, world, target, blockEntity, null, ItemStack.EMPTY);
@@ -486,6 +506,18 @@ public class LaserQuarryBlockEntity extends BlockEntity implements PipeConnectio
         if (drops.isEmpty() || blockEntity != null) {
             collectNearbyItems(world, target);
         }
+
+        LogisticsMetrics.QUARRY_BLOCKS_MINED.increment();
+        event.end();
+        if (event.shouldCommit()) {
+            event.setLocation(world, getBlockPos());
+            event.block = BuiltInRegistries.BLOCK.getKey(targetState.getBlock()).toString();
+            event.drops = drops.size();
+            event.targetX = target.getX();
+            event.targetY = target.getY();
+            event.targetZ = target.getZ();
+            event.commit();
+        }
     }
 
     private void collectNearbyItems(ServerLevel world, BlockPos target) {
@@ -504,6 +536,36 @@ public class LaserQuarryBlockEntity extends BlockEntity implements PipeConnectio
     private void outputItem(ServerLevel world, ItemStack stack) {
         if (stack.isEmpty()) return;
 
+        // Keep output in order behind anything already waiting
+        ItemStack refused = heldOutput.isEmpty() ? deliverOutput(world, stack) : stack.copy();
+        if (!refused.isEmpty()) {
+            heldOutput.add(refused);
+            setChanged();
+        }
+    }
+
+    /**
+     * Hand held output to the block above, oldest first.
+     * @return true if nothing is held anymore
+     */
+    private boolean flushHeldOutput(ServerLevel world) {
+        while (!heldOutput.isEmpty()) {
+            ItemStack refused = deliverOutput(world, heldOutput.getFirst());
+            if (!refused.isEmpty()) {
+                heldOutput.set(0, refused);
+                return false;
+            }
+            heldOutput.removeFirst();
+            setChanged();
+        }
+        return true;
+    }
+
+    /**
+     * Send a stack to the transport block or inventory above, dropping what an inventory cannot take.
+     * @return what a transport block above refused, to be held and retried; empty otherwise
+     */
+    private ItemStack deliverOutput(ServerLevel world, ItemStack stack) {
         BlockPos quarryPos = getBlockPos();
         BlockPos abovePos = quarryPos.above();
 
@@ -511,10 +573,12 @@ public class LaserQuarryBlockEntity extends BlockEntity implements PipeConnectio
         BlockState aboveState = world.getBlockState(abovePos);
         TransportApi transportApi = LogisticsApi.Registry.transport();
         if (transportApi.isTransportBlock(aboveState)) {
-            transportApi.forceInsert(world, abovePos, stack.copy(), Direction.UP);
-            return;
+            int accepted = transportApi.forceInsert(world, abovePos, stack, Direction.UP);
+            return accepted >= stack.getCount() ? ItemStack.EMPTY : stack.copyWithCount(stack.getCount() - accepted);
         }
 
+        stack = stack.copy();
+
         // Check if there's an inventory above (chest, barrel, etc.)
         if (!stack.isEmpty()) {
             BlockEntity aboveEntity = world.getBlockEntity(abovePos);
@@ -544,10 +608,10 @@ public class LaserQuarryBlockEntity extends BlockEntity implements PipeConnectio
             double y = quarryPos.getY() + 1.5;
             double z = quarryPos.getZ() + 0.5;
 
-            ItemEntity itemEntity = new ItemEntity(world, x, y, z, stack);
-            itemEntity.setDeltaMovement(0, 0.2, 0); // Small upward velocity
-            world.addFreshEntity(itemEntity);
+            // Small upward velocity; merged with other drops this tick
+            DropAggregator.drop(world, new Vec3(x, y, z), stack, new Vec3(0, 0.2, 0));
         }
+        return ItemStack.EMPTY;
     }
 
     /**
@@ -1167,6 +1231,12 @@ public class LaserQuarryBlockEntity extends BlockEntity implements PipeConnectio
         } else {
             view.discard("CustomBounds");
         }
+
+        if (!heldOutput.isEmpty()) {
+            view.store("HeldOutput", ItemStack.CODEC.listOf(), heldOutput);
+        } else {
+            view.discard("HeldOutput");
+        }
     }
 
     @Override
@@ -1224,6 +1294,9 @@ public class LaserQuarryBlockEntity extends BlockEntity implements PipeConnectio
             customMaxX = customBoundsNbt.getInt("MaxX").orElse(0);
             customMaxZ = customBoundsNbt.getInt("MaxZ").orElse(0);
         });
+
+        heldOutput.clear();
+        view.read("HeldOutput", ItemStack.CODEC.listOf()).ifPresent(heldOutput::addAll);
     }
 
     @Nullable @Override
@@ -0,0 +1,63 @@
+package com.logistics.core.command;
+
+import com.logistics.core.lib.support.TickProfiler;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import java.util.List;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+
+/**
+ * The {@code /logistics} command (operators only).
+ *
+ * <ul>
+ *   <li>{@code /logistics profile start} clears and starts the {@link TickProfiler}</li>
+ *   <li>{@code /logistics profile stop} stops it, keeping the results</li>
+ *   <li>{@code /logistics profile dump [count]} lists the hottest positions, block types and module hooks</li>
+ * </ul>
+ */
+public final class LogisticsCommand {
+    private static final int DEFAULT_DUMP_COUNT = 10;
+    private static final int MAX_DUMP_COUNT = 100;
+
+    private LogisticsCommand() {}
+
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("logistics")
+                .requires(Commands.hasPermission(Commands.LEVEL_GAMEMASTERS))
+                .then(Commands.literal("profile")
+                        .then(Commands.literal("start").executes(LogisticsCommand::startProfile))
+                        .then(Commands.literal("stop").executes(LogisticsCommand::stopProfile))
+                        .then(Commands.literal("dump")
+                                .executes(context -> dumpProfile(context, DEFAULT_DUMP_COUNT))
+                                .then(Commands.argument("count", IntegerArgumentType.integer(1, MAX_DUMP_COUNT))
+                                        .executes(context -> dumpProfile(
+                                                context, IntegerArgumentType.getInteger(context, "count")))))));
+    }
+
+    private static int startProfile(CommandContext<CommandSourceStack> context) {
+        TickProfiler.start(context.getSource().getServer().getTickCount());
+        context.getSource().sendSuccess(() -> Component.translatable("commands.logistics.profile.started"), true);
+        return 1;
+    }
+
+    private static int stopProfile(CommandContext<CommandSourceStack> context) {
+        if (!TickProfiler.isRunning()) {
+            context.getSource().sendFailure(Component.translatable("commands.logistics.profile.not_running"));
+            return 0;
+        }
+        TickProfiler.stop(context.getSource().getServer().getTickCount());
+        context.getSource().sendSuccess(() -> Component.translatable("commands.logistics.profile.stopped"), true);
+        return 1;
+    }
+
+    private static int dumpProfile(CommandContext<CommandSourceStack> context, int count) {
+        List<String> lines = TickProfiler.dump(context.getSource().getServer().getTickCount(), count);
+        for (String line : lines) {
+            context.getSource().sendSuccess(() -> Component.literal(line), false);
+        }
+        return lines.size();
+    }
+}
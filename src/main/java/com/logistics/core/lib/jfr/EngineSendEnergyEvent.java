@@ -0,0 +1,28 @@
+package com.logistics.core.lib.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An engine pushing energy into the block it faces.
+ */
+@Name("logistics.EngineSendEnergy")
+@Label("Engine Send Energy")
+@Category({"Logistics", "Power"})
+@Description("Energy pushed by an engine into the block it faces")
+@StackTrace(false)
+public final class EngineSendEnergyEvent extends LogisticsEvent {
+    @Label("Engine")
+    public String engine;
+
+    @Label("Offered")
+    @Description("Energy the engine tried to send")
+    public long offered;
+
+    @Label("Sent")
+    @Description("Energy the target accepted")
+    public long sent;
+}
@@ -0,0 +1,38 @@
+package com.logistics.core.lib.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+
+/**
+ * Base of the mod's JDK Flight Recorder events: the level and position of the block the event happened at.
+ *
+ * <p>Events follow the usual JFR pattern: create, {@link #begin()}, do the work, then fill in the fields and
+ * {@link #commit()} only if {@link #shouldCommit()}. With recording off (or the event disabled in the JFR
+ * settings) that costs an allocation the JIT removes and a flag check, so call sites stay instrumented
+ * permanently. Fields that are expensive to compute are only computed inside the {@code shouldCommit} branch.
+ */
+public abstract class LogisticsEvent extends Event {
+    @Label("Level")
+    public String level;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Z")
+    public int z;
+
+    /**
+     * Set the level and position fields.
+     */
+    public void setLocation(Level world, BlockPos pos) {
+        level = world.dimension().identifier().toString();
+        x = pos.getX();
+        y = pos.getY();
+        z = pos.getZ();
+    }
+}
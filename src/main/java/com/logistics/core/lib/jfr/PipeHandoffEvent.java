@@ -0,0 +1,30 @@
+package com.logistics.core.lib.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Transfer of an item from the end of a pipe into the next pipe or inventory.
+ */
+@Name("logistics.PipeHandoff")
+@Label("Pipe Handoff")
+@Category({"Logistics", "Pipes"})
+@Description("Outcome of handing an item to the block at the end of a pipe segment")
+@StackTrace(false)
+public final class PipeHandoffEvent extends LogisticsEvent {
+    @Label("Outcome")
+    @Description("delivered, partial, refused, waiting (still refused) or dropped")
+    public String outcome;
+
+    @Label("Item")
+    public String item;
+
+    @Label("Count")
+    public int count;
+
+    @Label("Inserted")
+    public long inserted;
+}
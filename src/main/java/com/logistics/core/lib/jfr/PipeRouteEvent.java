@@ -0,0 +1,31 @@
+package com.logistics.core.lib.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Routing decision for an item at a pipe center.
+ */
+@Name("logistics.PipeRoute")
+@Label("Pipe Route")
+@Category({"Logistics", "Pipes"})
+@Description("Route plan chosen by the pipe's modules for one item")
+@StackTrace(false)
+public final class PipeRouteEvent extends LogisticsEvent {
+    @Label("Pipe")
+    public String pipe;
+
+    @Label("Plan")
+    public String plan;
+
+    @Label("Module")
+    @Description("Module that returned the plan, empty if every module passed")
+    public String module;
+
+    @Label("Options")
+    @Description("Number of exits the item could take")
+    public int options;
+}
@@ -0,0 +1,29 @@
+package com.logistics.core.lib.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Item sync payload of one pipe sent to the players tracking it.
+ */
+@Name("logistics.PipeSync")
+@Label("Pipe Sync")
+@Category({"Logistics", "Pipes"})
+@Description("Pipe item changes sent to tracking players")
+@StackTrace(false)
+public final class PipeSyncEvent extends LogisticsEvent {
+    @Label("Operations")
+    public int ops;
+
+    @Label("Players")
+    public int players;
+
+    @Label("Payload Size")
+    @Description("Encoded size of the payload, sent once per player")
+    @DataAmount
+    public int payloadBytes;
+}
@@ -0,0 +1,28 @@
+package com.logistics.core.lib.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One server-side pipe tick, or one phase of it when the pipe is driven by the scheduler.
+ */
+@Name("logistics.PipeTick")
+@Label("Pipe Tick")
+@Category({"Logistics", "Pipes"})
+@Description("Module tick and item processing of one pipe")
+@StackTrace(false)
+public final class PipeTickEvent extends LogisticsEvent {
+    @Label("Pipe")
+    public String pipe;
+
+    @Label("Phase")
+    @Description("full, modules (scheduler phase 1a) or items (scheduler phase 1c)")
+    public String phase;
+
+    @Label("Item Count")
+    @Description("Traveling items in the pipe at the end of the call")
+    public int itemCount;
+}
@@ -0,0 +1,33 @@
+package com.logistics.core.lib.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A laser quarry breaking one block and outputting its drops.
+ */
+@Name("logistics.QuarryMine")
+@Label("Quarry Mine Block")
+@Category({"Logistics", "Automation"})
+@Description("Laser quarry breaking a block and outputting its drops")
+@StackTrace(false)
+public final class QuarryMineEvent extends LogisticsEvent {
+    @Label("Block")
+    public String block;
+
+    @Label("Drops")
+    @Description("Number of drop stacks")
+    public int drops;
+
+    @Label("Target X")
+    public int targetX;
+
+    @Label("Target Y")
+    public int targetY;
+
+    @Label("Target Z")
+    public int targetZ;
+}
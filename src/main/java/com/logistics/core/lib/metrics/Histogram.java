@@ -0,0 +1,53 @@
+package com.logistics.core.lib.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of observed values over fixed upper bounds, plus their sum and count.
+ */
+public final class Histogram extends Metric {
+    private final long[] bounds;
+    private final LongAdder[] buckets;
+    private final LongAdder sum = new LongAdder();
+    private final LongAdder count = new LongAdder();
+
+    Histogram(String name, String help, long... bounds) {
+        super(name, help);
+        this.bounds = bounds.clone();
+        this.buckets = new LongAdder[bounds.length];
+        for (int i = 0; i < bounds.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void observe(long value) {
+        // Only the first matching bucket is counted; writeSamples accumulates them into Prometheus' cumulative form
+        for (int i = 0; i < bounds.length; i++) {
+            if (value <= bounds[i]) {
+                buckets[i].increment();
+                break;
+            }
+        }
+        sum.add(value);
+        count.increment();
+    }
+
+    @Override
+    protected String getType() {
+        return "histogram";
+    }
+
+    @Override
+    protected void writeSamples(StringBuilder out) {
+        long cumulative = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            cumulative += buckets[i].sum();
+            out.append(getName()).append("_bucket{le=\"").append(bounds[i]).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        long total = count.sum();
+        out.append(getName()).append("_bucket{le=\"+Inf\"} ").append(Math.max(total, cumulative)).append('\n');
+        out.append(getName()).append("_sum ").append(sum.sum()).append('\n');
+        out.append(getName()).append("_count ").append(total).append('\n');
+    }
+}
@@ -0,0 +1,41 @@
+package com.logistics.core.lib.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current value per label value, e.g. per level. Values are set by the server thread and read by the exporter.
+ */
+public final class LabeledGauge extends Metric {
+    private final String label;
+    private final Map<String, Long> values = new ConcurrentHashMap<>();
+
+    LabeledGauge(String name, String help, String label) {
+        super(name, help);
+        this.label = label;
+    }
+
+    public void set(String labelValue, long value) {
+        values.put(labelValue, value);
+    }
+
+    public void remove(String labelValue) {
+        values.remove(labelValue);
+    }
+
+    @Override
+    protected String getType() {
+        return "gauge";
+    }
+
+    @Override
+    protected void writeSamples(StringBuilder out) {
+        values.forEach((labelValue, value) -> out.append(getName())
+                .append('{').append(label).append("=\"").append(escape(labelValue)).append("\"} ")
+                .append(value).append('\n'));
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,42 @@
+package com.logistics.core.lib.metrics;
+
+/**
+ * The mod's metrics. Item counts are individual items, not stacks.
+ */
+public final class LogisticsMetrics {
+    public static final Counter ITEMS_EXTRACTED = MetricsRegistry.counter(
+            "logistics_items_extracted_total", "Items pulled out of inventories by extraction pipes");
+    public static final Histogram EXTRACTION_BATCH = MetricsRegistry.histogram(
+            "logistics_extraction_batch_items", "Items pulled per successful extraction", 1, 8, 16, 64, 128, 256);
+    public static final Counter ITEMS_DELIVERED = MetricsRegistry.counter(
+            "logistics_items_delivered_total", "Items handed from a pipe into an inventory");
+    public static final Counter ITEMS_HOPPED = MetricsRegistry.counter(
+            "logistics_items_hopped_total", "Items handed from a pipe into the next pipe");
+    public static final Counter ITEMS_DROPPED = MetricsRegistry.counter(
+            "logistics_items_dropped_total", "Items dropped into the world by pipes");
+    public static final Counter ITEMS_VOIDED = MetricsRegistry.counter(
+            "logistics_items_voided_total", "Items discarded by void pipes");
+    public static final LabeledGauge ITEMS_IN_FLIGHT = MetricsRegistry.gauge(
+            "logistics_items_in_flight", "Items traveling through pipes at the end of the last tick", "level");
+    public static final Counter SYNC_PACKETS = MetricsRegistry.counter(
+            "logistics_sync_packets_total", "Pipe sync packets sent to players");
+    public static final Counter SYNC_BYTES = MetricsRegistry.counter(
+            "logistics_sync_bytes_total", "Encoded bytes of pipe sync packets sent to players");
+    public static final Histogram SYNC_PAYLOAD_SIZE = MetricsRegistry.histogram(
+            "logistics_sync_payload_bytes", "Encoded size of one pipe sync payload", 32, 64, 128, 256, 512, 1024, 4096);
+    public static final Counter QUARRY_BLOCKS_MINED = MetricsRegistry.counter(
+            "logistics_quarry_blocks_mined_total", "Blocks broken by laser quarries");
+    public static final Counter ENGINE_ENERGY_GENERATED = MetricsRegistry.counter(
+            "logistics_engine_energy_generated_total", "Energy (RF) added to engine buffers");
+    public static final Counter ENGINE_ENERGY_SENT = MetricsRegistry.counter(
+            "logistics_engine_energy_sent_total", "Energy (RF) pushed by engines into the blocks they face");
+
+    private LogisticsMetrics() {}
+
+    /**
+     * Make sure the metrics above are registered, so they are exported before their first update.
+     */
+    static void ensureRegistered() {
+        // Calling this initializes the class
+    }
+}
@@ -0,0 +1,32 @@
+package com.logistics.core.lib.metrics;
+
+/**
+ * A named value exported by {@link MetricsRegistry}.
+ */
+public abstract class Metric {
+    private final String name;
+    private final String help;
+
+    protected Metric(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHelp() {
+        return help;
+    }
+
+    /**
+     * Prometheus metric type ({@code counter}, {@code gauge} or {@code histogram}).
+     */
+    protected abstract String getType();
+
+    /**
+     * Append the sample lines (without HELP and TYPE) in Prometheus text format.
+     */
+    protected abstract void writeSamples(StringBuilder out);
+}
@@ -0,0 +1,114 @@
+package com.logistics.core.lib.metrics;
+
+import com.logistics.LogisticsCore;
+import com.logistics.LogisticsMod;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Publishes {@link MetricsRegistry} in Prometheus text format, configured through system properties (see
+ * {@link LogisticsCore.CONFIG}):
+ *
+ * <ul>
+ *   <li>an HTTP endpoint on {@code 127.0.0.1:<port>/metrics} for a local scraper or agent</li>
+ *   <li>a file rewritten every few seconds, for node-exporter's textfile collector</li>
+ * </ul>
+ *
+ * <p>Both run on one daemon thread, never on the server thread. Nothing is started when neither is configured.
+ */
+public final class MetricsExporter {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    @Nullable private static HttpServer httpServer;
+    @Nullable private static ScheduledExecutorService executor;
+    private static volatile boolean active = false;
+
+    private MetricsExporter() {}
+
+    /**
+     * Whether metrics are being published. Metrics that are expensive to measure are only updated while active.
+     */
+    public static boolean isActive() {
+        return active;
+    }
+
+    public static synchronized void start() {
+        int port = LogisticsCore.CONFIG.METRICS_PORT;
+        String file = LogisticsCore.CONFIG.METRICS_FILE;
+        if (executor != null || (port <= 0 && file.isEmpty())) {
+            return;
+        }
+
+        LogisticsMetrics.ensureRegistered();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Logistics Metrics Exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (port > 0) {
+            startHttpServer(port);
+        }
+        if (!file.isEmpty()) {
+            int interval = Math.max(1, LogisticsCore.CONFIG.METRICS_FILE_INTERVAL_SECONDS);
+            Path path = Path.of(file);
+            executor.scheduleWithFixedDelay(() -> writeFile(path), interval, interval, TimeUnit.SECONDS);
+            LogisticsMod.LOGGER.info("Writing logistics metrics to {} every {}s", path, interval);
+        }
+        active = true;
+    }
+
+    public static synchronized void stop() {
+        active = false;
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private static void startHttpServer(int port) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = MetricsRegistry.render().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.setExecutor(executor);
+            server.start();
+            httpServer = server;
+            LogisticsMod.LOGGER.info("Serving logistics metrics on http://127.0.0.1:{}/metrics", port);
+        } catch (IOException e) {
+            LogisticsMod.LOGGER.error("Failed to start logistics metrics endpoint on port {}", port, e);
+        }
+    }
+
+    private static void writeFile(Path path) {
+        // Write next to the target and move, so readers never see a partial file
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.writeString(temp, MetricsRegistry.render(), StandardCharsets.UTF_8);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LogisticsMod.LOGGER.warn("Failed to write logistics metrics to {}", path, e);
+        }
+    }
+}
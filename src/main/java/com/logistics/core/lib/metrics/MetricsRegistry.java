@@ -0,0 +1,54 @@
+package com.logistics.core.lib.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * All metrics of the mod, rendered together in Prometheus text format (see {@link MetricsExporter}).
+ *
+ * <p>Metrics are registered once, from static initializers ({@link LogisticsMetrics}), and updated from any
+ * thread. Updates are LongAdder increments, cheap enough to leave in hot paths whether or not an exporter runs.
+ */
+public final class MetricsRegistry {
+    private static final List<Metric> METRICS = new CopyOnWriteArrayList<>();
+
+    private MetricsRegistry() {}
+
+    public static Counter counter(String name, String help) {
+        return register(new Counter(name, help));
+    }
+
+    /**
+     * @param bounds inclusive upper bounds of the buckets, ascending
+     */
+    public static Histogram histogram(String name, String help, long... bounds) {
+        return register(new Histogram(name, help, bounds));
+    }
+
+    public static LabeledGauge gauge(String name, String help, String label) {
+        return register(new LabeledGauge(name, help, label));
+    }
+
+    private static <T extends Metric> T register(T metric) {
+        for (Metric existing : METRICS) {
+            if (existing.getName().equals(metric.getName())) {
+                throw new IllegalArgumentException("Duplicate metric: " + metric.getName());
+            }
+        }
+        METRICS.add(metric);
+        return metric;
+    }
+
+    /**
+     * Current values of all metrics in Prometheus text exposition format (version 0.0.4).
+     */
+    public static String render() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Metric metric : METRICS) {
+            out.append("# HELP ").append(metric.getName()).append(' ').append(metric.getHelp()).append('\n');
+            out.append("# TYPE ").append(metric.getName()).append(' ').append(metric.getType()).append('\n');
+            metric.writeSamples(out);
+        }
+        return out.toString();
+    }
+}
@@ -1,6 +1,9 @@
 package com.logistics.core.lib.power;
 
+import com.logistics.core.lib.jfr.EngineSendEnergyEvent;
+import com.logistics.core.lib.metrics.LogisticsMetrics;
 import com.logistics.core.lib.support.ProbeResult;
+import com.logistics.core.lib.support.TickProfiler;
 import team.reborn.energy.api.EnergyStorageUtil;
 import team.reborn.energy.api.base.SimpleSidedEnergyContainer;
 import team.reborn.energy.api.EnergyStorage;
@@ -10,6 +13,7 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.core.particles.ParticleTypes;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientGamePacketListener;
@@ -200,6 +204,15 @@ public abstract class AbstractEngineBlockEntity extends BlockEntity {
             return;
         }
 
+        long start = TickProfiler.begin(level);
+        updateEngine();
+        if (start != 0L) {
+            String category = BuiltInRegistries.BLOCK_ENTITY_TYPE.getKey(getType()).getPath();
+            TickProfiler.recordBlock(level, pos, category, start);
+        }
+    }
+
+    private void updateEngine() {
         computeTemperature();
 
         if (isOverheated()) {
@@ -360,18 +373,31 @@ public abstract class AbstractEngineBlockEntity extends BlockEntity {
         EnergyStorage target = EnergyStorage.SIDED.find(level, targetPos, outputDir.getOpposite());
 
         if (target != null) {
+            EngineSendEnergyEvent event = new EngineSendEnergyEvent();
+            event.begin();
             long maxSend = Math.min(getOutputPower(), energyStorage.amount);
             EnergyStorage source = energyStorage.getSideStorage(outputDir);
-            EnergyStorageUtil.move(source, target, maxSend, null);
+            long sent = EnergyStorageUtil.move(source, target, maxSend, null);
+            LogisticsMetrics.ENGINE_ENERGY_SENT.add(sent);
+            event.end();
+            if (event.shouldCommit()) {
+                event.setLocation(level, getBlockPos());
+                event.engine = BuiltInRegistries.BLOCK_ENTITY_TYPE.getKey(getType()).getPath();
+                event.offered = maxSend;
+                event.sent = sent;
+                event.commit();
+            }
         }
     }
 
     /** Adds energy to the buffer, capped at max capacity. */
     protected void addEnergy(long amount) {
+        long before = energyStorage.amount;
         energyStorage.amount += amount;
         if (energyStorage.amount > getEnergyBufferCapacity()) {
             energyStorage.amount = getEnergyBufferCapacity();
         }
+        LogisticsMetrics.ENGINE_ENERGY_GENERATED.add(energyStorage.amount - before);
         setChanged();
     }
 
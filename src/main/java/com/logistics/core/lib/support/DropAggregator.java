@@ -0,0 +1,168 @@
+package com.logistics.core.lib.support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Collects item drops during a level tick and spawns them once at the end of it.
+ *
+ * <p>Drops at the same spot are merged per variant up to the max stack size, and merged stacks first top up
+ * recent item entities of the same variant nearby. A jammed line that drops dozens of identical stacks in one
+ * tick then produces one entity per full stack instead of one per drop.
+ *
+ * <p>{@link #flushLevel} runs in a late phase of the end-of-level-tick event, after the pipe scheduler and
+ * block entity logic that queue drops.
+ */
+public final class DropAggregator {
+    private static final Map<ResourceKey<Level>, DropAggregator> AGGREGATORS = new HashMap<>();
+
+    // Only top up entities young enough that merged items still get most of the normal despawn time
+    private static final int MAX_TOP_UP_AGE = 1200;
+    private static final double TOP_UP_RADIUS = 0.5;
+
+    private final ServerLevel level;
+    private final Map<Vec3, List<PendingDrop>> pending = new HashMap<>();
+
+    private DropAggregator(ServerLevel level) {
+        this.level = level;
+    }
+
+    private static DropAggregator get(ServerLevel level) {
+        DropAggregator aggregator = AGGREGATORS.get(level.dimension());
+        if (aggregator == null || aggregator.level != level) {
+            aggregator = new DropAggregator(level);
+            AGGREGATORS.put(level.dimension(), aggregator);
+        }
+        return aggregator;
+    }
+
+    /**
+     * Drop a copy of the stack at the center of the block, with vanilla's random motion and pickup delay.
+     */
+    public static void drop(ServerLevel level, BlockPos pos, ItemStack stack) {
+        get(level).add(Vec3.atCenterOf(pos), null, stack);
+    }
+
+    /**
+     * Drop a copy of the stack at the given position with a fixed initial motion and no pickup delay.
+     */
+    public static void drop(ServerLevel level, Vec3 pos, ItemStack stack, Vec3 motion) {
+        get(level).add(pos, motion, stack);
+    }
+
+    /**
+     * Spawn everything queued for the level this tick.
+     */
+    public static void flushLevel(ServerLevel level) {
+        DropAggregator aggregator = AGGREGATORS.get(level.dimension());
+        if (aggregator != null && aggregator.level == level) {
+            aggregator.flush();
+        }
+    }
+
+    public static void clear(ServerLevel level) {
+        AGGREGATORS.remove(level.dimension());
+    }
+
+    private void add(Vec3 pos, @Nullable Vec3 motion, ItemStack stack) {
+        if (stack.isEmpty()) {
+            return;
+        }
+
+        List<PendingDrop> drops = pending.computeIfAbsent(pos, key -> new ArrayList<>());
+        int remaining = stack.getCount();
+        for (PendingDrop drop : drops) {
+            if (remaining == 0) {
+                return;
+            }
+            if (drop.canMerge(motion, stack)) {
+                int moved = Math.min(remaining, drop.stack.getMaxStackSize() - drop.stack.getCount());
+                drop.stack.grow(moved);
+                remaining -= moved;
+            }
+        }
+        while (remaining > 0) {
+            int count = Math.min(remaining, stack.getMaxStackSize());
+            drops.add(new PendingDrop(motion, stack.copyWithCount(count)));
+            remaining -= count;
+        }
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<Vec3, List<PendingDrop>> entry : pending.entrySet()) {
+            Vec3 pos = entry.getKey();
+            List<ItemEntity> nearby = null;
+            for (PendingDrop drop : entry.getValue()) {
+                if (nearby == null) {
+                    nearby = level.getEntitiesOfClass(ItemEntity.class, new AABB(pos, pos).inflate(TOP_UP_RADIUS),
+                            itemEntity -> itemEntity.isAlive() && itemEntity.getAge() < MAX_TOP_UP_AGE);
+                }
+                topUp(nearby, drop.stack);
+                if (!drop.stack.isEmpty()) {
+                    spawn(pos, drop);
+                }
+            }
+        }
+        pending.clear();
+    }
+
+    private static void topUp(List<ItemEntity> nearby, ItemStack stack) {
+        for (ItemEntity itemEntity : nearby) {
+            if (stack.isEmpty()) {
+                return;
+            }
+            ItemStack existing = itemEntity.getItem();
+            if (!ItemStack.isSameItemSameComponents(existing, stack)) {
+                continue;
+            }
+            int moved = Math.min(stack.getCount(), existing.getMaxStackSize() - existing.getCount());
+            if (moved > 0) {
+                itemEntity.setItem(existing.copyWithCount(existing.getCount() + moved));
+                stack.shrink(moved);
+            }
+        }
+    }
+
+    private void spawn(Vec3 pos, PendingDrop drop) {
+        ItemEntity itemEntity = new ItemEntity(level, pos.x, pos.y, pos.z, drop.stack);
+        if (drop.motion != null) {
+            itemEntity.setDeltaMovement(drop.motion);
+        } else {
+            // Prevent immediate pickup
+            itemEntity.setDefaultPickUpDelay();
+        }
+        level.addFreshEntity(itemEntity);
+    }
+
+    private static final class PendingDrop {
+        @Nullable private final Vec3 motion;
+        private final ItemStack stack;
+
+        PendingDrop(@Nullable Vec3 motion, ItemStack stack) {
+            this.motion = motion;
+            this.stack = stack;
+        }
+
+        boolean canMerge(@Nullable Vec3 otherMotion, ItemStack other) {
+            return Objects.equals(motion, otherMotion)
+                    && stack.getCount() < stack.getMaxStackSize()
+                    && ItemStack.isSameItemSameComponents(stack, other);
+        }
+    }
+}
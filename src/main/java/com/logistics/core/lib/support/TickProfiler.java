@@ -0,0 +1,178 @@
+package com.logistics.core.lib.support;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+/**
+ * Server-side tick profiler for logistics blocks, driven by {@code /logistics profile}.
+ *
+ * <p>While running, instrumented call sites measure their duration with {@link System#nanoTime()} and add it
+ * to three tables: per block position (pipes, quarries, engines), per block category (pipe type, quarry,
+ * engine type) and per module hook ({@code onTick}, {@code route}, {@code canAcceptFrom}). Module hook time is
+ * also part of the owning pipe's time. When stopped, {@link #begin} returns 0 after a single field read and
+ * nothing is recorded.
+ *
+ * <p>Only server-thread work is recorded (client-side calls are ignored), so the tables need no locking.
+ * Item movement that runs on worker threads (see {@code PipeScheduler}) is not included.
+ */
+public final class TickProfiler {
+    private static volatile boolean running = false;
+    private static long startTick;
+    private static long stopTick = -1;
+
+    private static final Map<PositionKey, Stat> POSITIONS = new HashMap<>();
+    private static final Map<String, Stat> CATEGORIES = new HashMap<>();
+    private static final Map<HookKey, Stat> HOOKS = new HashMap<>();
+
+    private TickProfiler() {}
+
+    /**
+     * Clear previous results and start recording.
+     *
+     * @param currentTick the server tick count, used to report time per tick
+     */
+    public static void start(long currentTick) {
+        POSITIONS.clear();
+        CATEGORIES.clear();
+        HOOKS.clear();
+        startTick = currentTick;
+        stopTick = -1;
+        running = true;
+    }
+
+    /**
+     * Stop recording. Results are kept until the next {@link #start}.
+     */
+    public static void stop(long currentTick) {
+        if (running) {
+            running = false;
+            stopTick = currentTick;
+        }
+    }
+
+    public static boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start timing a call on the given level.
+     *
+     * @return the start time to pass to a {@code record} method, or 0 if nothing should be recorded
+     */
+    public static long begin(Level level) {
+        if (!running || level.isClientSide()) {
+            return 0L;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the time since {@code start} for a block tick.
+     *
+     * @param category what the block is, e.g. {@code "pipe/item_extractor_pipe"} or {@code "quarry"}
+     */
+    public static void recordBlock(Level level, BlockPos pos, String category, long start) {
+        recordBlock(level, pos, category, start, true);
+    }
+
+    /**
+     * Record the time since {@code start} for a block tick that is split over several calls; only the call
+     * with {@code countCall} set counts as a tick.
+     */
+    public static void recordBlock(Level level, BlockPos pos, String category, long start, boolean countCall) {
+        if (start == 0L) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        int calls = countCall ? 1 : 0;
+        POSITIONS.computeIfAbsent(new PositionKey(level.dimension(), pos.immutable()), key -> new Stat(category))
+                .add(elapsed, calls);
+        CATEGORIES.computeIfAbsent(category, Stat::new).add(elapsed, calls);
+    }
+
+    /**
+     * Record the time since {@code start} for a hook of a module or similar component.
+     */
+    public static void recordHook(Object owner, String hook, long start) {
+        if (start == 0L) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        HOOKS.computeIfAbsent(new HookKey(owner.getClass(), hook),
+                        key -> new Stat(getName(key.owner()) + "." + key.hook()))
+                .add(elapsed, 1);
+    }
+
+    /**
+     * Report of the {@code limit} hottest positions, categories and hooks.
+     *
+     * @param currentTick the server tick count, used when the profiler is still running
+     */
+    public static List<String> dump(long currentTick, int limit) {
+        long ticks = Math.max(1, (running ? currentTick : stopTick) - startTick);
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("Logistics profile over %d ticks%s", ticks, running ? " (running)" : ""));
+
+        lines.add("Positions:");
+        POSITIONS.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(Stat.BY_TOTAL))
+                .limit(limit)
+                .forEach(entry -> {
+                    PositionKey key = entry.getKey();
+                    BlockPos pos = key.pos();
+                    String where = String.format("%s %d %d %d (%s)", key.dimension().identifier(),
+                            pos.getX(), pos.getY(), pos.getZ(), entry.getValue().label);
+                    lines.add(entry.getValue().format(where, ticks));
+                });
+
+        lines.add("Block types:");
+        CATEGORIES.values().stream()
+                .sorted(Stat.BY_TOTAL)
+                .limit(limit)
+                .forEach(stat -> lines.add(stat.format(stat.label, ticks)));
+
+        lines.add("Module hooks:");
+        HOOKS.values().stream()
+                .sorted(Stat.BY_TOTAL)
+                .limit(limit)
+                .forEach(stat -> lines.add(stat.format(stat.label, ticks)));
+        return lines;
+    }
+
+    private static String getName(Class<?> type) {
+        // Anonymous classes have no simple name
+        String name = type.getSimpleName();
+        return name.isEmpty() ? type.getName().substring(type.getName().lastIndexOf('.') + 1) : name;
+    }
+
+    private record PositionKey(ResourceKey<Level> dimension, BlockPos pos) {}
+
+    private record HookKey(Class<?> owner, String hook) {}
+
+    private static final class Stat {
+        static final Comparator<Stat> BY_TOTAL = Comparator.comparingLong((Stat stat) -> stat.nanos).reversed();
+
+        final String label;
+        long nanos;
+        long count;
+
+        Stat(String label) {
+            this.label = label;
+        }
+
+        void add(long elapsed, int calls) {
+            nanos += elapsed;
+            count += calls;
+        }
+
+        String format(String name, long ticks) {
+            return String.format("  %8.3f ms/t  %8d calls  %s", nanos / 1_000_000.0 / ticks, count, name);
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.logistics.pipe;
 
 import com.logistics.LogisticsMod;
 import com.logistics.LogisticsPipe;
+import com.logistics.core.lib.jfr.PipeRouteEvent;
 import com.logistics.core.lib.pipe.PipeConnection;
+import com.logistics.core.lib.support.TickProfiler;
 import com.logistics.pipe.block.PipeBlock;
 import com.logistics.pipe.modules.Module;
 import com.logistics.pipe.runtime.RoutePlan;
@@ -23,9 +25,14 @@ import net.minecraft.util.RandomSource;
 import org.jetbrains.annotations.Nullable;
 
 public class Pipe {
+    private static final long DEFAULT_ENERGY_CAPACITY = 1000;
+    private static final long DEFAULT_ENERGY_MAX_INSERT = 100;
+
     private final List<Module> modules;
     private PipeBlock pipeBlock;
     private boolean hasEnergy = false;
+    private long energyCapacity = DEFAULT_ENERGY_CAPACITY;
+    private long energyMaxInsert = DEFAULT_ENERGY_MAX_INSERT;
 
     protected Pipe(Module... modules) {
         this.modules = List.of(modules);
@@ -40,6 +47,16 @@ public class Pipe {
         return this;
     }
 
+    /**
+     * Marks this pipe as having energy storage with the given capacity and per-tick insert limit.
+     */
+    public Pipe withEnergy(long capacity, long maxInsert) {
+        this.hasEnergy = true;
+        this.energyCapacity = capacity;
+        this.energyMaxInsert = maxInsert;
+        return this;
+    }
+
     /**
      * Returns whether this pipe has energy storage capability.
      */
@@ -47,6 +64,14 @@ public class Pipe {
         return hasEnergy;
     }
 
+    public long getEnergyCapacity() {
+        return energyCapacity;
+    }
+
+    public long getEnergyMaxInsert() {
+        return energyMaxInsert;
+    }
+
     /**
      * Called by PipeBlock during registration to establish back-reference.
      * This allows the Pipe to derive model identifiers from the block's registry name.
@@ -147,6 +172,18 @@ public class Pipe {
         return null;
     }
 
+    /**
+     * Whether any module needs per-tick updates, which keeps the pipe from going dormant.
+     */
+    public boolean hasTicks() {
+        for (Module module : modules) {
+            if (module.hasTicks()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public boolean hasRandomTicks() {
         for (Module module : modules) {
             if (module.hasRandomTicks()) {
@@ -281,14 +318,34 @@ public class Pipe {
     }
 
     public RoutePlan route(PipeContext ctx, TravelingItem item, List<Direction> options) {
+        PipeRouteEvent event = new PipeRouteEvent();
+        event.begin();
         for (Module module : modules) {
+            long start = TickProfiler.begin(ctx.world());
             RoutePlan plan = module.route(ctx, item, options);
+            TickProfiler.recordHook(module, "route", start);
             if (plan.getType() != RoutePlan.Type.PASS) {
+                commitRouteEvent(ctx, event, plan, module, options);
                 return plan;
             }
         }
 
-        return RoutePlan.pass();
+        RoutePlan plan = RoutePlan.pass();
+        commitRouteEvent(ctx, event, plan, null, options);
+        return plan;
+    }
+
+    private void commitRouteEvent(
+            PipeContext ctx, PipeRouteEvent event, RoutePlan plan, @Nullable Module module, List<Direction> options) {
+        event.end();
+        if (!ctx.world().isClientSide() && event.shouldCommit()) {
+            event.setLocation(ctx.world(), ctx.pos());
+            event.pipe = getPipeName();
+            event.plan = plan.getType().name();
+            event.module = module == null ? "" : module.getClass().getName();
+            event.options = options == null ? 0 : options.size();
+            event.commit();
+        }
     }
 
     public boolean canAcceptFrom(PipeContext ctx, Direction from, net.minecraft.world.item.ItemStack stack) {
@@ -300,7 +357,10 @@ public class Pipe {
 
         // Check all modules for additional acceptance criteria
         for (Module module : modules) {
-            if (!module.canAcceptFrom(ctx, from, stack)) {
+            long start = TickProfiler.begin(ctx.world());
+            boolean accepted = module.canAcceptFrom(ctx, from, stack);
+            TickProfiler.recordHook(module, "canAcceptFrom", start);
+            if (!accepted) {
                 return false;
             }
         }
@@ -345,7 +405,9 @@ public class Pipe {
 
     public void onTick(PipeContext ctx) {
         for (Module module : modules) {
+            long start = TickProfiler.begin(ctx.world());
             module.onTick(ctx);
+            TickProfiler.recordHook(module, "onTick", start);
         }
     }
 
@@ -399,4 +461,14 @@ public class Pipe {
         }
         return false;
     }
+
+    // Whether a module extracts from the inventory on the given side
+    public boolean isExtractionSource(PipeContext ctx, Direction direction) {
+        for (Module module : modules) {
+            if (module.isExtractionSource(ctx, direction)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -19,24 +19,22 @@ public final class PipeApi implements TransportApi {
     }
 
     @Override
-    public boolean tryInsert(ServerLevel world, BlockPos targetPos, ItemStack stack, Direction from) {
+    public int tryInsert(ServerLevel world, BlockPos targetPos, ItemStack stack, Direction from) {
         BlockEntity aboveEntity = world.getBlockEntity(targetPos);
         if (aboveEntity instanceof PipeBlockEntity pipeEntity) {
             TravelingItem travelingItem = new TravelingItem(stack.copy(), from, LogisticsPipe.CONFIG.ITEM_MIN_SPEED);
-            pipeEntity.addItem(travelingItem, from.getOpposite(), false);
-            return true;
+            return pipeEntity.insertItem(travelingItem, from.getOpposite(), false);
         }
-        return false;
+        return 0;
     }
 
     @Override
-    public boolean forceInsert(ServerLevel world, BlockPos targetPos, ItemStack stack, Direction from) {
+    public int forceInsert(ServerLevel world, BlockPos targetPos, ItemStack stack, Direction from) {
         BlockEntity aboveEntity = world.getBlockEntity(targetPos);
         if (aboveEntity instanceof PipeBlockEntity pipeEntity) {
             TravelingItem travelingItem = new TravelingItem(stack.copy(), from, LogisticsPipe.CONFIG.ITEM_MIN_SPEED);
-            pipeEntity.addItem(travelingItem, from.getOpposite(), true);
-            return true;
+            return pipeEntity.insertItem(travelingItem, from.getOpposite(), true);
         }
-        return false;
+        return 0;
     }
 }
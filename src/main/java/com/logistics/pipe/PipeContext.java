@@ -4,6 +4,8 @@ import com.logistics.core.lib.pipe.PipeConnection;
 import com.logistics.pipe.block.PipeBlock;
 import com.logistics.pipe.block.entity.PipeBlockEntity;
 import com.logistics.pipe.modules.Module;
+import com.logistics.pipe.modules.ModuleState;
+import com.logistics.pipe.runtime.DirectionMask;
 import java.util.List;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -29,6 +31,13 @@ public record PipeContext(Level world, BlockPos pos, BlockState state, PipeBlock
         return blockEntity.getOrCreateModuleState(key);
     }
 
+    /**
+     * Get the typed state of a module that implements {@link Module#createState()}.
+     */
+    public <T extends ModuleState> T state(Module module) {
+        return blockEntity.getModuleState(module);
+    }
+
     // Convenience methods for module state access (with Module instance)
     public String getString(Module module, String key, String defaultValue) {
         return moduleState(module.getStateKey()).getString(key).orElse(defaultValue);
@@ -77,16 +86,40 @@ public record PipeContext(Level world, BlockPos pos, BlockState state, PipeBlock
         moduleState(module.getStateKey()).put(key, value);
     }
 
+    /**
+     * Get data this module compiled from its state, or null if there is none yet.
+     * Caches are dropped when the module state is replaced (load or client sync); modules that change
+     * their own state must call {@link #setCache} with null.
+     */
+    @Nullable public Object getCache(Module module) {
+        return blockEntity.getModuleCache(module);
+    }
+
+    public void setCache(Module module, @Nullable Object value) {
+        blockEntity.setModuleCache(module, value);
+    }
+
+    /**
+     * Mark module state as changed so the pipe is saved (coalesced to once per tick on the server).
+     */
     public void markDirty() {
-        blockEntity.setChanged();
+        blockEntity.queueSave();
+    }
+
+    /**
+     * Make sure this pipe is ticked again within the given number of ticks, even if it has gone dormant.
+     * Used by modules that rely on timers but do not need every tick.
+     */
+    public void scheduleTick(int delayTicks) {
+        blockEntity.scheduleWake(world.getGameTime() + Math.max(1, delayTicks));
     }
 
+    /**
+     * Save module state changes and send the module state to tracking clients at the end of the tick.
+     */
     public void markDirtyAndSync() {
         markDirty();
-
-        if (!world.isClientSide()) {
-            world.sendBlockUpdated(pos, state, state, 3);
-        }
+        blockEntity.queueModuleStateSync();
     }
 
     /**
@@ -125,21 +158,32 @@ public record PipeContext(Level world, BlockPos pos, BlockState state, PipeBlock
      * Get all directions that this pipe has connections to (pipes or inventories).
      * Returns directions where the connection type is not NONE.
      *
-     * @return List of connected directions
+     * @return Shared immutable list of connected directions
      */
     public List<Direction> getConnectedDirections() {
-        List<Direction> connected = new java.util.ArrayList<>();
-        if (!(state.getBlock() instanceof PipeBlock pipeBlock)) {
-            return connected;
+        return DirectionMask.toList(getConnectionMask());
+    }
+
+    /**
+     * Get the connected sides as a bitmask ({@code 1 << direction.get3DDataValue()} per connected side).
+     *
+     * @return the connection mask
+     */
+    public int getConnectionMask() {
+        if (!(state.getBlock() instanceof PipeBlock)) {
+            return 0;
+        }
+        if (isConnectionCacheUsable()) {
+            return blockEntity.getConnectionMask();
         }
 
+        int mask = 0;
         for (Direction direction : Direction.values()) {
-            PipeConnection.Type type = pipeBlock.getConnectionType(world, pos, direction);
-            if (type != PipeConnection.Type.NONE) {
-                connected.add(direction);
+            if (getConnectionType(direction) != PipeConnection.Type.NONE) {
+                mask |= 1 << direction.get3DDataValue();
             }
         }
-        return connected;
+        return mask;
     }
 
     /**
@@ -150,15 +194,12 @@ public record PipeContext(Level world, BlockPos pos, BlockState state, PipeBlock
      * @return true if there is a connection in that direction
      */
     public boolean hasConnection(Direction direction) {
-        if (!(state.getBlock() instanceof PipeBlock pipeBlock)) {
-            return false;
-        }
-        PipeConnection.Type type = pipeBlock.getConnectionType(world, pos, direction);
-        return type != PipeConnection.Type.NONE;
+        return getConnectionType(direction) != PipeConnection.Type.NONE;
     }
 
     /**
      * Get the connection type for a specific direction.
+     * Reads the block entity's connection cache; on the server a pending refresh falls back to a live lookup.
      *
      * @param direction The direction to check
      * @return The connection type (NONE, PIPE, or INVENTORY)
@@ -167,7 +208,27 @@ public record PipeContext(Level world, BlockPos pos, BlockState state, PipeBlock
         if (!(state.getBlock() instanceof PipeBlock pipeBlock)) {
             return PipeConnection.Type.NONE;
         }
-        return pipeBlock.getConnectionType(world, pos, direction);
+        if (isConnectionCacheUsable()) {
+            return blockEntity.getCachedConnectionType(direction);
+        }
+        return pipeBlock.getDynamicConnectionType(world, pos, direction);
+    }
+
+    /**
+     * Mark the connection cache of this pipe and its neighboring pipes as stale.
+     * Modules call this after changing state that affects {@link Module#allowsConnection}.
+     */
+    public void invalidateConnections() {
+        blockEntity.markConnectionCacheDirty();
+        for (Direction direction : Direction.values()) {
+            if (world.getBlockEntity(pos.relative(direction)) instanceof PipeBlockEntity neighbor) {
+                neighbor.markConnectionCacheDirty();
+            }
+        }
+    }
+
+    private boolean isConnectionCacheUsable() {
+        return world.isClientSide() || !blockEntity.isConnectionCacheDirty();
     }
 
     /**
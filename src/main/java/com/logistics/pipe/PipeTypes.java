@@ -6,6 +6,7 @@ import com.logistics.pipe.modules.BoostModule;
 import com.logistics.pipe.modules.ExtractionModule;
 import com.logistics.pipe.modules.InsertionModule;
 import com.logistics.pipe.modules.ItemFilterModule;
+import com.logistics.pipe.modules.LoadBalancingModule;
 import com.logistics.pipe.modules.MergerModule;
 import com.logistics.pipe.modules.PipeMarkingModule;
 import com.logistics.pipe.modules.PipeOnlyModule;
@@ -47,6 +48,14 @@ public final class PipeTypes {
     // Item filter - routes items based on per-side filters.
     public static final Pipe ITEM_FILTER = new Pipe(new ItemFilterModule()) {};
 
+    // Bulk item extractor - pulls up to 4 stacks across slots per cycle; the energy buffer holds 4 stacks' worth.
+    public static final Pipe ITEM_BULK_EXTRACTOR =
+            new Pipe(new ExtractionModule(4), new BlockConnectionModule(() -> PipeTypes.ITEM_BULK_EXTRACTOR))
+                    .withEnergy(2560, 320);
+
+    // Item balancer - spreads items evenly (optionally weighted per side) over its exits.
+    public static final Pipe ITEM_BALANCER = new Pipe(new LoadBalancingModule()) {};
+
     // Item void - deletes items at the center with particle effects.
     public static final Pipe ITEM_VOID = new Pipe(new VoidModule(), new PipeOnlyModule()) {};
 
@@ -203,6 +203,10 @@ public class PipeBlock extends BaseEntityBlock implements Probeable, SimpleWater
     @Nullable @Override
     public <T extends BlockEntity> BlockEntityTicker<T> getTicker(
             Level world, BlockState state, BlockEntityType<T> type) {
+        // Server-side pipes are ticked by the per-level PipeScheduler; only the client uses the vanilla ticker
+        if (!world.isClientSide()) {
+            return null;
+        }
         return createTickerHelper(
                 type,
                 LogisticsPipe.ENTITY.PIPE_BLOCK_ENTITY,
@@ -260,6 +264,10 @@ public class PipeBlock extends BaseEntityBlock implements Probeable, SimpleWater
             tickView.scheduleTick(pos, Fluids.WATER, Fluids.WATER.getTickDelay(world));
         }
 
+        if (world.getBlockEntity(pos) instanceof PipeBlockEntity pipeEntity) {
+            pipeEntity.markConnectionCacheDirty();
+        }
+
         return state;
     }
 
@@ -271,6 +279,10 @@ public class PipeBlock extends BaseEntityBlock implements Probeable, SimpleWater
             Block block,
             @Nullable Orientation orientation,
             boolean notify) {
+        if (world.getBlockEntity(pos) instanceof PipeBlockEntity pipeEntity) {
+            pipeEntity.markConnectionCacheDirty();
+        }
+
         if (!world.isClientSide()) {
             boolean powered = world.hasNeighborSignal(pos);
             if (powered != state.getValue(POWERED)) {
@@ -367,11 +379,10 @@ public class PipeBlock extends BaseEntityBlock implements Probeable, SimpleWater
     }
 
     public PipeConnection.Type getConnectionType(BlockGetter world, BlockPos pos, Direction direction) {
-        // On client side, use cached values from block entity for rendering performance
-        if (world instanceof Level actualWorld && actualWorld.isClientSide()) {
-            PipeBlockEntity pipeEntity =
-                    actualWorld.getBlockEntity(pos) instanceof PipeBlockEntity blockEntity ? blockEntity : null;
-            if (pipeEntity != null) {
+        // Use cached values from the block entity; the server only recomputes while a refresh is pending
+        if (world.getBlockEntity(pos) instanceof PipeBlockEntity pipeEntity) {
+            boolean clientSide = world instanceof Level actualWorld && actualWorld.isClientSide();
+            if (clientSide || !pipeEntity.isConnectionCacheDirty()) {
                 return pipeEntity.getCachedConnectionType(direction);
             }
         }
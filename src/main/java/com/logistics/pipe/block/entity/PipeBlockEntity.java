@@ -1,16 +1,25 @@
 package com.logistics.pipe.block.entity;
 
+import com.logistics.core.lib.metrics.LogisticsMetrics;
 import com.logistics.core.lib.pipe.PipeConnection;
 import com.logistics.core.lib.power.AcceptsLowTierEnergy;
+import com.logistics.core.lib.support.DropAggregator;
 import team.reborn.energy.api.base.SimpleEnergyStorage;
 import com.logistics.pipe.Pipe;
 import com.logistics.pipe.PipeContext;
 import com.logistics.pipe.block.PipeBlock;
 import com.logistics.LogisticsPipe;
+import com.logistics.pipe.modules.Module;
+import com.logistics.pipe.modules.ModuleState;
+import com.logistics.pipe.network.PipeSyncPayload;
+import com.logistics.pipe.runtime.PipeItemBuffer;
 import com.logistics.pipe.runtime.PipeRuntime;
+import com.logistics.pipe.runtime.PipeScheduler;
 import com.logistics.pipe.runtime.TravelingItem;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
 import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
 import net.minecraft.core.BlockPos;
@@ -19,11 +28,10 @@ import net.minecraft.core.HolderLookup;
 import net.minecraft.core.component.DataComponentGetter;
 import net.minecraft.core.component.DataComponentMap;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.ListTag;
-import net.minecraft.nbt.NbtOps;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientGamePacketListener;
 import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.phys.Vec3;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.item.ItemStack;
@@ -35,14 +43,43 @@ import org.jetbrains.annotations.Nullable;
 
 public class PipeBlockEntity extends BlockEntity implements PipeConnection, AcceptsLowTierEnergy {
     public static final int VIRTUAL_CAPACITY = 5 * 64;
-    private final List<TravelingItem> travelingItems = new ArrayList<>();
+    private final PipeItemBuffer items = new PipeItemBuffer();
     private final CompoundTag moduleState = new CompoundTag();
+    // Typed module state, read from moduleState on first use and written back on save/sync
+    private final Map<Module, ModuleState> typedModuleStates = new IdentityHashMap<>();
+    // Data compiled from module state (not saved), dropped whenever the module state is replaced
+    private final Map<Module, Object> moduleCaches = new IdentityHashMap<>();
 
     // Tracks changes in connected sides so modules can react deterministically.
     private int lastConnectionsMask = -1;
 
-    // Connection type cache for rendering (updated when connections change)
+    // Connection cache (per-side types plus a 6-bit mask of non-NONE sides).
+    // Recomputed by PipeRuntime only after neighbor updates or connection-relevant module changes.
     private final PipeConnection.Type[] connectionTypes = new PipeConnection.Type[6];
+    private int connectionMask = 0;
+    private boolean connectionCacheDirty = true;
+
+    // Dormant pipes (no items, no ticking modules) skip their tick until woken.
+    private boolean dormant = false;
+    private long scheduledWakeTime = Long.MAX_VALUE;
+
+    // Whether this pipe is in its level's PipeScheduler active set (server only).
+    private boolean scheduled = false;
+    // Whether this pipe is in its level's PipeScheduler timed wake list (server only).
+    private boolean timedWakePending = false;
+
+    // Set when an insert found this pipe full, so feeders waiting on it retry once items leave
+    private boolean refusedForCapacity = false;
+
+    @Nullable private PipeContext cachedContext;
+
+    // Changes flushed once at the end of the tick by the PipeScheduler (server only):
+    // a coalesced setChanged() plus the sync ops for tracking clients.
+    private final List<PipeSyncPayload.Op> pendingItemSync = new ArrayList<>();
+    private boolean savePending = false;
+    private boolean connectionSyncPending = false;
+    private boolean moduleStateSyncPending = false;
+    private boolean markedDirty = false;
 
     // Energy storage (only created for pipes with energy capability)
     @Nullable
@@ -59,11 +96,10 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
         // Create energy storage only if pipe has energy capability
         Pipe pipe = state.getBlock() instanceof PipeBlock pipeBlock ? pipeBlock.getPipe() : null;
         if (pipe != null && pipe.hasEnergy()) {
-            // TODO: Configure capacity/maxInsert/maxExtract based on pipe type
-            this.energyStorage = new SimpleEnergyStorage(1000, 100, 0) {
+            this.energyStorage = new SimpleEnergyStorage(pipe.getEnergyCapacity(), pipe.getEnergyMaxInsert(), 0) {
                 @Override
                 protected void onFinalCommit() {
-                    setChanged();
+                    queueSave();
                 }
             };
         } else {
@@ -81,7 +117,7 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
     }
 
     /**
-     * Get the cached connection type for rendering.
+     * Get the cached connection type.
      * This is updated by PipeRuntime and reflects what this pipe has connected to.
      */
     public PipeConnection.Type getCachedConnectionType(Direction direction) {
@@ -90,41 +126,93 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
 
     public void setConnectionType(Direction direction, PipeConnection.Type type) {
         connectionTypes[direction.ordinal()] = type;
+        int bit = 1 << direction.get3DDataValue();
+        if (type != PipeConnection.Type.NONE) {
+            connectionMask |= bit;
+        } else {
+            connectionMask &= ~bit;
+        }
     }
 
     /**
-     * Add an item to this pipe
+     * Cached connection types packed into an int, two bits per side (type ordinal at
+     * {@code direction.ordinal() * 2}). Used to sync connection changes to clients.
+     */
+    public int getPackedConnectionTypes() {
+        int packed = 0;
+        for (int i = 0; i < connectionTypes.length; i++) {
+            packed |= connectionTypes[i].ordinal() << (i * 2);
+        }
+        return packed;
+    }
+
+    public void setPackedConnectionTypes(int packed) {
+        PipeConnection.Type[] types = PipeConnection.Type.values();
+        for (Direction direction : Direction.values()) {
+            setConnectionType(direction, types[(packed >> (direction.ordinal() * 2)) & 3]);
+        }
+    }
+
+    /**
+     * Get the cached connection mask (bit {@code 1 << direction.get3DDataValue()} set for each connected side).
+     */
+    public int getConnectionMask() {
+        return connectionMask;
+    }
+
+    /**
+     * Whether the connection cache needs to be recomputed before it can be trusted.
+     */
+    public boolean isConnectionCacheDirty() {
+        return connectionCacheDirty;
+    }
+
+    /**
+     * Request a connection cache refresh on the next tick.
+     * Called on neighbor/shape updates and when module state affecting connections changes.
+     */
+    public void markConnectionCacheDirty() {
+        connectionCacheDirty = true;
+        invalidateNetwork();
+        wake();
+    }
+
+    public void markConnectionCacheClean() {
+        connectionCacheDirty = false;
+    }
+
+    /**
+     * Add an item to this pipe, dropping whatever does not fit (see {@link #insertItem} to keep it instead)
      * @param item The item to add
      * @param fromDirection The direction the item is coming from
      * @param bypassIngress Bypass any ingress checks
      * @return true if accepted, false if rejected
      */
     public boolean addItem(TravelingItem item, Direction fromDirection, boolean bypassIngress) {
-        long accepted = getInsertableAmount(item.getStack().getCount(), fromDirection, item.getStack(), bypassIngress);
-        if (accepted <= 0) {
-            dropItem(level, getBlockPos(), item);
-            return false;
-        }
-
-        TravelingItem remainder = null;
+        int accepted = insertItem(item, fromDirection, bypassIngress);
         if (accepted < item.getStack().getCount()) {
-            ItemStack remainderStack = item.getStack().copy();
-            remainderStack.setCount(item.getStack().getCount() - (int) accepted);
-            remainder = new TravelingItem(remainderStack, fromDirection.getOpposite(), item.getSpeed());
-        }
-
-        ItemStack acceptedStack = item.getStack().copy();
-        acceptedStack.setCount((int) accepted);
-        acceptInsertedStack(acceptedStack, fromDirection, item.getSpeed());
-
-        if (remainder != null) {
-            dropItem(level, getBlockPos(), remainder);
+            dropItem(level, getBlockPos(), item.getStack().copyWithCount(item.getStack().getCount() - accepted));
             return false;
         }
-
         return true;
     }
 
+    /**
+     * Add as much of an item as this pipe has room for, without dropping the rest.
+     * @param item The item to add; not modified
+     * @param fromDirection The direction the item is coming from
+     * @param bypassIngress Bypass any ingress checks
+     * @return the number of items accepted
+     */
+    public int insertItem(TravelingItem item, Direction fromDirection, boolean bypassIngress) {
+        long accepted = getInsertableAmount(item.getStack().getCount(), fromDirection, item.getStack(), bypassIngress);
+        if (accepted <= 0) {
+            return 0;
+        }
+        acceptInsertedStack(item.getStack().copyWithCount((int) accepted), fromDirection, item.getSpeed());
+        return (int) accepted;
+    }
+
     /**
      * Add an item from the PipeConnection interface.
      * Creates a TravelingItem with default speed and delegates to the existing addItem logic.
@@ -140,10 +228,17 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
     }
 
     /**
-     * Get all traveling items (for rendering)
+     * Get the buffer holding this pipe's traveling items.
+     */
+    public PipeItemBuffer getItemBuffer() {
+        return items;
+    }
+
+    /**
+     * Snapshot of all traveling items as detached views. Changes to the returned list do not affect the pipe.
      */
     public List<TravelingItem> getTravelingItems() {
-        return travelingItems;
+        return items.toTravelingItems();
     }
 
     @Override
@@ -153,19 +248,11 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
         // Save all data to a CompoundTag, then store it
         CompoundTag pipeData = new CompoundTag();
 
-        // Save traveling items
-        if (!travelingItems.isEmpty()) {
-            ListTag itemsList = new ListTag();
-            for (TravelingItem item : travelingItems) {
-                CompoundTag itemTag = (CompoundTag) TravelingItem.CODEC
-                        .encodeStart(NbtOps.INSTANCE, item)
-                        .getOrThrow();
-                itemsList.add(itemTag);
-            }
-            pipeData.put("TravelingItems", itemsList);
-        }
+        // Save traveling items (ids are kept so clients can match sync deltas after a full update)
+        items.save(pipeData);
 
         // Save module state
+        writeTypedModuleStates();
         if (!moduleState.isEmpty()) {
             pipeData.put("ModuleState", moduleState);
         }
@@ -192,44 +279,21 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
 
         view.read("PipeData", CompoundTag.CODEC).ifPresent(pipeData -> {
             // Load traveling items
-            travelingItems.clear();
-            if (pipeData.contains("TravelingItems")) {
-                pipeData.getList("TravelingItems").ifPresent(itemsList -> {
-                    for (int i = 0; i < itemsList.size(); i++) {
-                        itemsList.getCompound(i)
-                                .flatMap(itemTag -> TravelingItem.CODEC.parse(NbtOps.INSTANCE, itemTag).result())
-                                .ifPresent(travelingItems::add);
-                    }
-                });
-            }
+            items.load(pipeData);
 
             // Load module state
-            if (!moduleState.isEmpty()) {
-                for (String key : new java.util.ArrayList<>(moduleState.keySet())) {
-                    moduleState.remove(key);
-                }
-            }
-            if (pipeData.contains("ModuleState")) {
-                pipeData.getCompound("ModuleState").ifPresent(stored -> {
-                    for (String key : stored.keySet()) {
-                        moduleState.put(key, java.util.Objects.requireNonNull(stored.get(key)).copy());
-                    }
-                });
-            }
+            setModuleState(pipeData.getCompound("ModuleState").orElse(new CompoundTag()));
 
             // Load connection types
-            if (pipeData.contains("Connections")) {
-                CompoundTag connectionsNbt = pipeData.getCompound("Connections").orElse(new CompoundTag());
-                // Reset all to NONE first
-                for (int i = 0; i < 6; i++) {
-                    connectionTypes[i] = PipeConnection.Type.NONE;
-                }
-                // Load saved connections
-                for (Direction direction : Direction.values()) {
-                    String typeName = connectionsNbt.getString(direction.name().toLowerCase()).orElse("none");
-                    connectionTypes[direction.ordinal()] = PipeConnection.Type.fromSerializedName(typeName);
-                }
+            // (NONE sides are not written, so a missing tag means no connections)
+            CompoundTag connectionsNbt = pipeData.getCompound("Connections").orElse(new CompoundTag());
+            for (Direction direction : Direction.values()) {
+                String typeName = connectionsNbt.getString(direction.name().toLowerCase()).orElse("none");
+                setConnectionType(direction, PipeConnection.Type.fromSerializedName(typeName));
             }
+
+            // Saved connections are only a starting point; neighbors may have changed while unloaded.
+            markConnectionCacheDirty();
         });
 
         long durationMs = (System.nanoTime() - readStart) / 1_000_000L;
@@ -238,7 +302,7 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
                     "[timing] PipeBlockEntity loadAdditional at {} took {} ms (items={})",
                     getBlockPos(),
                     durationMs,
-                    travelingItems.size());
+                    items.size());
         }
     }
 
@@ -252,20 +316,190 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
         return saveWithoutMetadata(registries);
     }
 
+    /**
+     * Client-side ticker entry point. Server pipes are driven by {@link PipeScheduler} instead.
+     */
     public static void tick(
             net.minecraft.world.level.Level world, BlockPos pos, BlockState state, PipeBlockEntity blockEntity) {
+        if (blockEntity.isDormant(world.getGameTime())) {
+            return;
+        }
         PipeRuntime.tick(world, pos, state, blockEntity);
     }
 
+    /**
+     * Check whether this pipe should skip its tick. A scheduled wake time that has passed wakes the pipe.
+     */
+    public boolean isDormant(long gameTime) {
+        if (gameTime >= scheduledWakeTime) {
+            scheduledWakeTime = Long.MAX_VALUE;
+            dormant = false;
+        }
+        return dormant;
+    }
+
+    /**
+     * Stop ticking until something wakes this pipe (item insertion, neighbor change, sync, or a scheduled wake).
+     */
+    public void enterDormancy() {
+        dormant = true;
+        if (scheduledWakeTime != Long.MAX_VALUE && level instanceof ServerLevel serverLevel) {
+            PipeScheduler.get(serverLevel).scheduleTimedWake(this);
+        }
+    }
+
+    /**
+     * Resume ticking on the next tick.
+     */
+    public void wake() {
+        dormant = false;
+        if (level instanceof ServerLevel serverLevel && !isRemoved()) {
+            PipeScheduler.get(serverLevel).schedule(this);
+        }
+    }
+
+    /**
+     * Wake this pipe no later than the given game time, for modules that need a delayed tick.
+     */
+    public void scheduleWake(long gameTime) {
+        scheduledWakeTime = Math.min(scheduledWakeTime, gameTime);
+        if (dormant && level instanceof ServerLevel serverLevel) {
+            PipeScheduler.get(serverLevel).scheduleTimedWake(this);
+        }
+    }
+
+    /**
+     * Mark this pipe as needing to be saved. On the server the {@link #setChanged()} call (which also updates
+     * comparators) is coalesced into one call at the end of the tick.
+     */
+    public void queueSave() {
+        if (markDirty()) {
+            savePending = true;
+        } else {
+            setChanged();
+        }
+    }
+
+    /**
+     * Queue an item change for the next sync to tracking clients. Ignored on the client.
+     */
+    public void queueItemSync(PipeSyncPayload.Op op) {
+        if (markDirty()) {
+            pendingItemSync.add(op);
+        }
+    }
+
+    /**
+     * Send the cached connection types with the next sync.
+     */
+    public void queueConnectionSync() {
+        if (markDirty()) {
+            connectionSyncPending = true;
+        }
+    }
+
+    /**
+     * Send the module state with the next sync.
+     */
+    public void queueModuleStateSync() {
+        if (markDirty()) {
+            moduleStateSyncPending = true;
+        }
+    }
+
+    /**
+     * Add this pipe to its level's dirty set (once per tick).
+     *
+     * @return false on the client or for removed pipes, where nothing is deferred
+     */
+    private boolean markDirty() {
+        if (!(level instanceof ServerLevel serverLevel) || isRemoved()) {
+            return false;
+        }
+        if (!markedDirty) {
+            markedDirty = true;
+            PipeScheduler.get(serverLevel).markDirty(this);
+        }
+        return true;
+    }
+
+    /**
+     * Apply the pending save and collect the pending sync changes, clearing both. Connection and module state
+     * go first so item ops are applied against current configuration.
+     */
+    public List<PipeSyncPayload.Op> flushPendingChanges() {
+        if (savePending) {
+            savePending = false;
+            if (!isRemoved()) {
+                setChanged();
+            }
+        }
+
+        List<PipeSyncPayload.Op> ops = new ArrayList<>(pendingItemSync.size() + 2);
+        if (connectionSyncPending) {
+            ops.add(new PipeSyncPayload.Connections(getPackedConnectionTypes()));
+        }
+        if (moduleStateSyncPending) {
+            writeTypedModuleStates();
+            ops.add(new PipeSyncPayload.ModuleState(moduleState.copy()));
+        }
+        ops.addAll(pendingItemSync);
+
+        pendingItemSync.clear();
+        connectionSyncPending = false;
+        moduleStateSyncPending = false;
+        markedDirty = false;
+        return ops;
+    }
+
+    public boolean isScheduled() {
+        return scheduled;
+    }
+
+    public void setScheduled(boolean scheduled) {
+        this.scheduled = scheduled;
+    }
+
+    /**
+     * Whether an insert found this pipe full since the last call. Clears the flag.
+     */
+    public boolean consumeRefusedForCapacity() {
+        boolean refused = refusedForCapacity;
+        refusedForCapacity = false;
+        return refused;
+    }
+
+    public boolean isTimedWakePending() {
+        return timedWakePending;
+    }
+
+    public void setTimedWakePending(boolean timedWakePending) {
+        this.timedWakePending = timedWakePending;
+    }
+
     /**
      * Drop an item entity at the pipe's position
      */
     public static void dropItem(net.minecraft.world.level.Level level, BlockPos pos, TravelingItem item) {
+        dropItem(level, pos, item.getStack());
+    }
+
+    /**
+     * Drop a copy of the stack as an item entity at the pipe's position
+     */
+    public static void dropItem(net.minecraft.world.level.Level level, BlockPos pos, ItemStack stack) {
+        if (level instanceof ServerLevel serverLevel) {
+            LogisticsMetrics.ITEMS_DROPPED.add(stack.getCount());
+            // Merged with other drops at this pipe and spawned at the end of the tick
+            DropAggregator.drop(serverLevel, pos, stack);
+            return;
+        }
+
         // Create item entity at center of pipe
         Vec3 spawnPos = Vec3.atCenterOf(pos);
 
         ItemEntity itemEntity = new ItemEntity(
-                level, spawnPos.x, spawnPos.y, spawnPos.z, item.getStack().copy());
+                level, spawnPos.x, spawnPos.y, spawnPos.z, stack.copy());
 
         // Prevent immediate pickup
         itemEntity.setDefaultPickUpDelay();
@@ -276,9 +510,73 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
     @Override
     public void setRemoved() {
         super.setRemoved();
+        invalidateNetwork();
+        if (level instanceof ServerLevel serverLevel) {
+            PipeScheduler.removeFeeder(serverLevel, this);
+        }
         // Item dropping is handled in PipeBlock.onRemove() instead
     }
 
+    private void invalidateNetwork() {
+        if (level instanceof ServerLevel serverLevel) {
+            PipeScheduler.invalidateNetwork(serverLevel, worldPosition);
+        }
+    }
+
+    /**
+     * Replace all module state with a copy of the given tag (NBT load or a client-side sync).
+     */
+    public void setModuleState(CompoundTag stored) {
+        for (String key : new ArrayList<>(moduleState.keySet())) {
+            moduleState.remove(key);
+        }
+        for (String key : stored.keySet()) {
+            moduleState.put(key, java.util.Objects.requireNonNull(stored.get(key)).copy());
+        }
+        typedModuleStates.clear();
+        moduleCaches.clear();
+    }
+
+    /**
+     * Get the typed state of a module, reading it from the module's NBT compound on first use.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends ModuleState> T getModuleState(Module module) {
+        ModuleState state = typedModuleStates.get(module);
+        if (state == null) {
+            state = module.createState();
+            if (state == null) {
+                throw new IllegalStateException("Module " + module.getStateKey() + " has no typed state");
+            }
+            moduleState.getCompound(module.getStateKey()).ifPresent(state::read);
+            typedModuleStates.put(module, state);
+        }
+        return (T) state;
+    }
+
+    private void writeTypedModuleStates() {
+        for (Map.Entry<Module, ModuleState> entry : typedModuleStates.entrySet()) {
+            String key = entry.getKey().getStateKey();
+            CompoundTag tag = getOrCreateModuleState(key);
+            entry.getValue().write(tag);
+            if (tag.isEmpty()) {
+                moduleState.remove(key);
+            }
+        }
+    }
+
+    @Nullable public Object getModuleCache(Module module) {
+        return moduleCaches.get(module);
+    }
+
+    public void setModuleCache(Module module, @Nullable Object value) {
+        if (value == null) {
+            moduleCaches.remove(module);
+        } else {
+            moduleCaches.put(module, value);
+        }
+    }
+
     public CompoundTag getOrCreateModuleState(String key) {
         if (!moduleState.contains(key)) {
             moduleState.put(key, new CompoundTag());
@@ -286,8 +584,16 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
         return moduleState.getCompound(key).orElseThrow();
     }
 
+    /**
+     * Get a context for this pipe. The (immutable) context is reused until the level or block state changes.
+     */
     public PipeContext createContext() {
-        return new PipeContext(level, worldPosition, getBlockState(), this);
+        PipeContext context = cachedContext;
+        if (context == null || context.world() != level || context.state() != getBlockState()) {
+            context = new PipeContext(level, worldPosition, getBlockState(), this);
+            cachedContext = context;
+        }
+        return context;
     }
 
     public int getLastConnectionsMask() {
@@ -309,7 +615,7 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
         }
 
         if (pipeBlock.getPipe() != null) {
-            PipeContext context = new PipeContext(level, worldPosition, state, this);
+            PipeContext context = createContext();
             Pipe modulePipe = pipeBlock.getPipe();
             if (modulePipe.canAcceptFrom(context, side, ItemStack.EMPTY)) {
                 return new PipeItemStorage(this, side);
@@ -336,6 +642,9 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
         }
 
         int remaining = getRemainingCapacity();
+        if (remaining < maxAmount) {
+            refusedForCapacity = true;
+        }
         if (remaining <= 0) {
             return 0;
         }
@@ -349,13 +658,12 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
         }
 
         float speed = speedOverride != null ? speedOverride : getInitialSpeed();
-        TravelingItem newItem = new TravelingItem(stack, fromDirection.getOpposite(), speed);
-        travelingItems.add(newItem);
-        setChanged();
-
-        if (level != null && !level.isClientSide()) {
-            level.sendBlockUpdated(worldPosition, getBlockState(), getBlockState(), 3);
-        }
+        ItemStack itemStack = stack.copy();
+        Direction direction = fromDirection.getOpposite();
+        int index = items.add(itemStack, direction, speed, 0.0f, false);
+        queueItemSync(new PipeSyncPayload.AddItem(items.getId(index), itemStack, direction, speed, 0.0f, false));
+        wake();
+        queueSave();
     }
 
     private float getInitialSpeed() {
@@ -383,7 +691,7 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
         }
 
         if (pipeBlock.getPipe() != null) {
-            PipeContext context = new PipeContext(level, worldPosition, state, this);
+            PipeContext context = createContext();
             return pipeBlock.getPipe().canAcceptFrom(context, fromDirection, stack);
         }
 
@@ -401,7 +709,7 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
         if (pipe == null) {
             return false;
         }
-        PipeContext ctx = new PipeContext(level, getBlockPos(), getBlockState(), this);
+        PipeContext ctx = createContext();
         return pipe.canAcceptFrom(ctx, from, stack);
     }
 
@@ -409,12 +717,11 @@ public class PipeBlockEntity extends BlockEntity implements PipeConnection, Acce
         return VIRTUAL_CAPACITY - getTotalItemCount();
     }
 
-    private int getTotalItemCount() {
-        int total = 0;
-        for (TravelingItem item : travelingItems) {
-            total += item.getStack().getCount();
-        }
-        return total;
+    /**
+     * Total number of items (sum of stack counts) traveling through this pipe.
+     */
+    public int getTotalItemCount() {
+        return items.getTotalCount();
     }
 
     public int getComparatorOutput() {
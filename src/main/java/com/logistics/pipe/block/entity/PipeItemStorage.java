@@ -43,17 +43,23 @@ public class PipeItemStorage implements Storage<ItemVariant> {
     }
 
     public long insert(TravelingItem item, TransactionContext transaction) {
-        if (item.getStack().isEmpty()) {
+        return insert(item.getStack(), item.getSpeed(), transaction);
+    }
+
+    /**
+     * Insert a stack that keeps its current speed (pipe-to-pipe handoff). The stack is copied, not consumed.
+     */
+    public long insert(ItemStack source, float speed, TransactionContext transaction) {
+        if (source.isEmpty()) {
             return 0;
         }
 
-        long accepted = pipe.getInsertableAmount(item.getStack().getCount(), fromDirection, item.getStack());
+        long accepted = pipe.getInsertableAmount(source.getCount(), fromDirection, source);
         if (accepted <= 0) {
             return 0;
         }
 
-        float speed = item.getSpeed();
-        ItemStack stack = item.getStack().copy();
+        ItemStack stack = source.copy();
         stack.setCount((int) accepted);
 
         transaction.addCloseCallback((context, result) -> {
@@ -2,12 +2,18 @@ package com.logistics.pipe.modules;
 
 import com.logistics.LogisticsMod;
 import com.logistics.LogisticsPipe;
+import com.logistics.core.lib.metrics.LogisticsMetrics;
 import com.logistics.pipe.PipeContext;
 import com.logistics.pipe.block.entity.PipeBlockEntity;
+import com.logistics.pipe.runtime.PipeScheduler;
 import com.logistics.pipe.runtime.TravelingItem;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.SlottedStorage;
 import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
 import net.fabricmc.fabric.api.transfer.v1.storage.StorageView;
 import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
@@ -15,6 +21,7 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.Identifier;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
@@ -25,6 +32,34 @@ public class ExtractionModule implements Module {
     private static final String TICKS_SINCE_PULL = "ticks_since_pull";
     private static final int RF_PER_ITEM = 10;
     private static final long ENERGY_CAPACITY = 2560L;
+    private static final long UNVERSIONED = Long.MIN_VALUE;
+
+    private final int maxStacksPerCycle;
+
+    public ExtractionModule() {
+        this(1);
+    }
+
+    /**
+     * @param maxStacksPerCycle how many stacks one extraction may pull, taken from as many slots as needed.
+     *     The amount is still limited by the stored energy at {@code RF_PER_ITEM} per item.
+     */
+    public ExtractionModule(int maxStacksPerCycle) {
+        if (maxStacksPerCycle < 1) {
+            throw new IllegalArgumentException("maxStacksPerCycle must be at least 1");
+        }
+        this.maxStacksPerCycle = maxStacksPerCycle;
+    }
+
+    @Override
+    public ModuleState createState() {
+        return new State();
+    }
+
+    @Override
+    public boolean hasTicks() {
+        return true;
+    }
 
     @Override
     public void onTick(PipeContext ctx) {
@@ -34,9 +69,13 @@ public class ExtractionModule implements Module {
         }
 
         // Increment tick counter
-        int ticks = ctx.getInt(this, TICKS_SINCE_PULL, 0);
-        ticks++;
-        ctx.saveInt(this, TICKS_SINCE_PULL, ticks);
+        State state = ctx.state(this);
+        int ticks = ++state.ticksSincePull;
+
+        // Backpressure: items stalled at this pipe's exit mean downstream is saturated, so stop pulling
+        if (ctx.blockEntity().getItemBuffer().getStalledCount() > 0) {
+            return;
+        }
 
         // Check if we should extract
         if (!shouldExtract(ctx, ticks)) {
@@ -44,7 +83,7 @@ public class ExtractionModule implements Module {
         }
 
         // Get extraction direction
-        Direction direction = getExtractionDirection(ctx);
+        Direction direction = state.extractFrom;
         if (direction == null) {
             direction = autoSelectDirection(ctx);
             if (direction == null) {
@@ -57,7 +96,7 @@ public class ExtractionModule implements Module {
         extractFromDirection(ctx, direction);
 
         // Always reset tick counter and zero energy buffer
-        ctx.saveInt(this, TICKS_SINCE_PULL, 0);
+        state.ticksSincePull = 0;
         ctx.setEnergy(0);
     }
 
@@ -96,35 +135,29 @@ public class ExtractionModule implements Module {
         return InteractionResult.SUCCESS;
     }
 
+    @Override
+    public boolean isExtractionSource(PipeContext ctx, Direction direction) {
+        return getExtractionDirection(ctx) == direction;
+    }
+
     private @Nullable Direction getExtractionDirection(PipeContext ctx) {
-        CompoundTag state = ctx.moduleState(getStateKey());
-        if (!state.contains(EXTRACT_FROM)) {
-            return null;
-        }
-        String directionStr = state.getString(EXTRACT_FROM).orElse("");
-        if (directionStr.isEmpty()) {
-            return null;
-        }
-        try {
-            return Direction.from3DDataValue(Integer.parseInt(directionStr));
-        } catch (NumberFormatException e) {
-            return null;
-        }
+        return ctx.<State>state(this).extractFrom;
     }
 
     private void setExtractionDirection(PipeContext ctx, @Nullable Direction direction) {
-        Direction current = getExtractionDirection(ctx);
-        if (current == direction) {
+        State state = ctx.state(this);
+        if (state.extractFrom == direction) {
             return;
         }
 
-        if (direction == null) {
-            ctx.remove(this, EXTRACT_FROM);
-        } else {
-            ctx.saveString(this, EXTRACT_FROM, String.valueOf(direction.get3DDataValue()));
-        }
-
+        state.extractFrom = direction;
+        state.slotCursor = 0;
+        state.idleStorage = null;
         ctx.markDirtyAndSync();
+        if (ctx.world() instanceof ServerLevel serverLevel) {
+            // The old source becomes a destination and the new one stops being one
+            PipeScheduler.invalidateNetwork(serverLevel, ctx.pos());
+        }
     }
 
     private Direction nextInCycle(List<Direction> ordered, @Nullable Direction current) {
@@ -144,10 +177,10 @@ public class ExtractionModule implements Module {
             return false;
         }
 
-        // 8-15 ticks: only if energy covers full stack
+        // 8-15 ticks: only if energy covers full stacks
         if (ticks < 16) {
             Direction direction = getExtractionDirection(ctx);
-            long maxExtractable = getMaxExtractableCount(ctx, direction);
+            long maxExtractable = getMaxExtractableCount(ctx, direction) * maxStacksPerCycle;
             return energy >= maxExtractable * RF_PER_ITEM;
         }
 
@@ -160,21 +193,93 @@ public class ExtractionModule implements Module {
             return 0;
         }
 
-        BlockPos targetPos = ctx.pos().relative(direction);
-        Storage<ItemVariant> storage = ItemStorage.SIDED.find(ctx.world(), targetPos, direction.getOpposite());
-
+        State state = ctx.state(this);
+        Storage<ItemVariant> storage = findStorage(ctx, state, direction);
         if (storage == null) {
             return 0;
         }
 
         // Find first non-empty slot and check stack size
-        for (StorageView<ItemVariant> view : storage) {
-            ItemVariant variant = view.getResource();
-            if (!variant.isBlank()) {
-                return Math.min(64, variant.getItem().getDefaultMaxStackSize());
+        long[] maxCount = {0};
+        scan(state, storage, readVersion(state, storage), view -> {
+            maxCount[0] = Math.min(64, view.getResource().getItem().getDefaultMaxStackSize());
+            return true;
+        });
+        return maxCount[0];
+    }
+
+    /**
+     * The storage on the given side, looked up through a {@link BlockApiCache} kept in the pipe's state.
+     */
+    private @Nullable Storage<ItemVariant> findStorage(PipeContext ctx, State state, Direction direction) {
+        BlockPos targetPos = ctx.pos().relative(direction);
+        if (!(ctx.world() instanceof ServerLevel serverLevel)) {
+            return ItemStorage.SIDED.find(ctx.world(), targetPos, direction.getOpposite());
+        }
+
+        if (state.storageCache == null || state.storageSide != direction) {
+            state.storageCache = BlockApiCache.create(ItemStorage.SIDED, serverLevel, targetPos);
+            state.storageSide = direction;
+        }
+        return state.storageCache.find(direction.getOpposite());
+    }
+
+    /**
+     * The storage's version for {@link #scan}, or {@code UNVERSIONED} if it does not track changes. Must be called
+     * outside a transaction: the default {@link Storage#getVersion()} throws inside one.
+     */
+    private static long readVersion(State state, Storage<ItemVariant> storage) {
+        long version = storage.getVersion();
+        if (state.versionProbed != storage) {
+            // Storages that do not override getVersion() (e.g. vanilla containers) return a new value every call
+            state.versionProbed = storage;
+            state.versioned = storage.getVersion() == version;
+        }
+        return state.versioned ? version : UNVERSIONED;
+    }
+
+    private static boolean isIdle(State state, Storage<ItemVariant> storage, long version) {
+        return version != UNVERSIONED && state.idleStorage == storage && state.idleVersion == version;
+    }
+
+    /**
+     * Offer the storage's non-blank views to the visitor until it returns true.
+     *
+     * <p>Slotted storages are scanned from the slot cursor, wrapping around, and the cursor is left on the slot
+     * where the visitor stopped, so the next scan starts where items were last found. A scan that finds nothing
+     * remembers the storage's version (read by {@link #readVersion} before any transaction was opened); until that
+     * changes, later scans return false right away. Unversioned storages are always scanned.
+     */
+    private static boolean scan(
+            State state, Storage<ItemVariant> storage, long version, Predicate<StorageView<ItemVariant>> visitor) {
+        if (isIdle(state, storage, version)) {
+            return false;
+        }
+
+        if (storage instanceof SlottedStorage<ItemVariant> slotted) {
+            int slotCount = slotted.getSlotCount();
+            int start = state.slotCursor < slotCount ? state.slotCursor : 0;
+            for (int i = 0; i < slotCount; i++) {
+                int slot = (start + i) % slotCount;
+                StorageView<ItemVariant> view = slotted.getSlot(slot);
+                if (!view.isResourceBlank() && visitor.test(view)) {
+                    state.slotCursor = slot;
+                    state.idleStorage = null;
+                    return true;
+                }
+            }
+        } else {
+            for (StorageView<ItemVariant> view : storage) {
+                if (!view.isResourceBlank() && visitor.test(view)) {
+                    state.idleStorage = null;
+                    return true;
+                }
             }
         }
-        return 0;
+
+        state.idleStorage = version != UNVERSIONED ? storage : null;
+        state.idleVersion = version;
+        return false;
     }
 
     @Nullable private Direction autoSelectDirection(PipeContext ctx) {
@@ -184,47 +289,59 @@ public class ExtractionModule implements Module {
 
     private boolean extractFromDirection(PipeContext ctx, Direction direction) {
         long energy = ctx.getEnergy();
-        long maxItems = Math.min(64, energy / RF_PER_ITEM);
+        long maxItems = Math.min(maxStacksPerCycle * 64L, energy / RF_PER_ITEM);
 
         if (maxItems <= 0) {
             return false;
         }
 
-        // Check if pipe has space for the full extraction
-        int totalItems = ctx.blockEntity().getTravelingItems().stream()
-                .mapToInt(item -> item.getStack().getCount())
-                .sum();
+        // Check if pipe has space for at least one full stack of the extraction
+        int totalItems = ctx.blockEntity().getTotalItemCount();
         int remaining = PipeBlockEntity.VIRTUAL_CAPACITY - totalItems;
-        if (remaining < maxItems) {
+        if (remaining < Math.min(64, maxItems)) {
             return false; // Not enough space for full extraction, skip to preserve full stacks
         }
+        long budget = Math.min(maxItems, remaining);
 
-        BlockPos targetPos = ctx.pos().relative(direction);
-        Storage<ItemVariant> storage = ItemStorage.SIDED.find(ctx.world(), targetPos, direction.getOpposite());
-
+        State state = ctx.state(this);
+        Storage<ItemVariant> storage = findStorage(ctx, state, direction);
         if (storage == null) {
             return false;
         }
 
+        // Pull up to maxStacksPerCycle stacks across slots in one transaction, then add them as one batch
+        long version = readVersion(state, storage);
+        if (isIdle(state, storage, version)) {
+            return false; // Nothing changed since the last scan found nothing, so skip the transaction too
+        }
+        List<ItemStack> extractedStacks = new ArrayList<>(maxStacksPerCycle);
+        long[] left = {budget};
         try (Transaction transaction = Transaction.openOuter()) {
-            for (StorageView<ItemVariant> view : storage) {
+            scan(state, storage, version, view -> {
                 ItemVariant variant = view.getResource();
-                if (variant.isBlank()) {
-                    continue;
+                long request = Math.min(left[0], variant.getItem().getDefaultMaxStackSize());
+                long extracted = view.extract(variant, request, transaction);
+                if (extracted <= 0) {
+                    return false;
                 }
 
-                long extracted = view.extract(variant, maxItems, transaction);
-                if (extracted > 0) {
-                    ItemStack stack = variant.toStack((int) extracted);
-                    TravelingItem item = new TravelingItem(stack, direction.getOpposite(), LogisticsPipe.CONFIG.ITEM_MIN_SPEED);
-                    ctx.blockEntity().forceAddItem(item, direction);
-                    transaction.commit();
-                    return true;
-                }
+                extractedStacks.add(variant.toStack((int) extracted));
+                left[0] -= extracted;
+                return left[0] <= 0 || extractedStacks.size() >= maxStacksPerCycle;
+            });
+            if (extractedStacks.isEmpty()) {
+                return false;
             }
+            transaction.commit();
         }
+        LogisticsMetrics.ITEMS_EXTRACTED.add(budget - left[0]);
+        LogisticsMetrics.EXTRACTION_BATCH.observe(budget - left[0]);
 
-        return false;
+        for (ItemStack stack : extractedStacks) {
+            TravelingItem item = new TravelingItem(stack, direction.getOpposite(), LogisticsPipe.CONFIG.ITEM_MIN_SPEED);
+            ctx.blockEntity().forceAddItem(item, direction);
+        }
+        return true;
     }
 
     @Override
@@ -244,4 +361,30 @@ public class ExtractionModule implements Module {
     public boolean acceptsLowTierEnergyFrom(PipeContext ctx, Direction from) {
         return true; // Accept low-tier energy from all directions
     }
+
+    private static final class State implements ModuleState {
+        @Nullable private Direction extractFrom;
+        private int ticksSincePull;
+
+        // Runtime only, not saved
+        @Nullable private BlockApiCache<Storage<ItemVariant>, Direction> storageCache;
+        @Nullable private Direction storageSide;
+        private int slotCursor;
+        @Nullable private Storage<ItemVariant> idleStorage;
+        private long idleVersion;
+        @Nullable private Storage<ItemVariant> versionProbed;
+        private boolean versioned;
+
+        @Override
+        public void read(CompoundTag tag) {
+            extractFrom = ModuleState.readDirection(tag, EXTRACT_FROM);
+            ticksSincePull = tag.getInt(TICKS_SINCE_PULL).orElse(0);
+        }
+
+        @Override
+        public void write(CompoundTag tag) {
+            ModuleState.writeDirection(tag, EXTRACT_FROM, extractFrom);
+            tag.putInt(TICKS_SINCE_PULL, ticksSincePull);
+        }
+    }
 }
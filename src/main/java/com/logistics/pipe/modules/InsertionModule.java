@@ -1,11 +1,15 @@
 package com.logistics.pipe.modules;
 
 import com.logistics.pipe.PipeContext;
+import com.logistics.pipe.runtime.DirectionMask;
+import com.logistics.pipe.runtime.PipeNetwork;
+import com.logistics.pipe.runtime.PipeRandom;
+import com.logistics.pipe.runtime.PipeScheduler;
 import com.logistics.pipe.runtime.RoutePlan;
 import com.logistics.pipe.runtime.TravelingItem;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
 import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
@@ -13,10 +17,50 @@ import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import org.jetbrains.annotations.Nullable;
 
 public class InsertionModule implements Module {
+    /**
+     * The neighbors of a pipe as seen by {@link #route(Sides, TravelingItem, List)}. In the game they are read
+     * from the pipe's {@link PipeContext} and the level's scheduler; benchmarks supply fixed ones.
+     */
+    public interface Sides {
+        BlockPos getPos();
+
+        long getGameTime();
+
+        boolean isInventory(Direction side);
+
+        boolean isPipe(Direction side);
+
+        /**
+         * How much of the stack's variant the inventory on the given side accepts, before reservations.
+         */
+        long getCapacity(Direction side, ItemStack stack);
+
+        /**
+         * Items of the stack's variant already routed toward the inventory on the given side.
+         */
+        long getReserved(Direction side, ItemStack stack);
+
+        /**
+         * The pipe direction (within {@code pipeMask}) toward the nearest inventory elsewhere in the network with
+         * space for the stack, or null if there is none or it is not known.
+         */
+        @Nullable Direction nextHopToRemoteInventory(ItemStack stack, int pipeMask);
+    }
+
     @Override
     public RoutePlan route(PipeContext ctx, TravelingItem item, List<Direction> options) {
+        return route(new ContextSides(ctx, getCapacitySnapshot(ctx)), item, options);
+    }
+
+    /**
+     * Prefer inventories with room for the whole stack, then split between inventories with partial room and
+     * the connected pipes, then head for the nearest remote inventory with room.
+     */
+    public static RoutePlan route(Sides sides, TravelingItem item, List<Direction> options) {
         if (options == null || options.isEmpty()) {
             return RoutePlan.drop();
         }
@@ -28,8 +72,8 @@ public class InsertionModule implements Module {
         long amount = item.getStack().getCount();
 
         for (Direction direction : options) {
-            if (ctx.isInventoryConnection(direction)) {
-                long available = getInsertSpace(ctx, item, direction);
+            if (sides.isInventory(direction)) {
+                long available = getInsertSpace(sides, item, direction);
                 if (available >= amount) {
                     inventoryWithSpace.add(direction);
                 } else if (available > 0) {
@@ -39,7 +83,7 @@ public class InsertionModule implements Module {
                 continue;
             }
 
-            if (ctx.isNeighborPipe(direction)) {
+            if (sides.isPipe(direction)) {
                 pipeDirections.add(direction);
             }
         }
@@ -49,7 +93,7 @@ public class InsertionModule implements Module {
         }
 
         if (!inventoryWithPartialSpace.isEmpty() && !pipeDirections.isEmpty()) {
-            return splitToInventoryAndPipes(ctx, item, inventoryWithPartialSpace, partialAmounts, pipeDirections);
+            return splitToInventoryAndPipes(sides, item, inventoryWithPartialSpace, partialAmounts, pipeDirections);
         }
 
         if (!inventoryWithPartialSpace.isEmpty()) {
@@ -57,61 +101,39 @@ public class InsertionModule implements Module {
         }
 
         if (!pipeDirections.isEmpty()) {
-            return RoutePlan.reroute(pipeDirections);
+            Direction toward = sides.nextHopToRemoteInventory(item.getStack(), DirectionMask.of(pipeDirections));
+            return toward != null ? RoutePlan.reroute(toward) : RoutePlan.reroute(pipeDirections);
         }
 
         return RoutePlan.drop();
     }
 
-    private long getInsertSpace(PipeContext ctx, TravelingItem item, Direction direction) {
-        BlockPos targetPos = ctx.pos().relative(direction);
-        Storage<ItemVariant> storage = ItemStorage.SIDED.find(ctx.world(), targetPos, direction.getOpposite());
-        if (storage == null) {
+    /**
+     * How much of the item the inventory on the given side can still take, after the items already routed
+     * there.
+     */
+    private static long getInsertSpace(Sides sides, TravelingItem item, Direction direction) {
+        ItemStack stack = item.getStack();
+        if (stack.isEmpty()) {
             return 0;
         }
 
-        ItemVariant variant = ItemVariant.of(item.getStack());
-        long amount = item.getStack().getCount();
-        if (variant.isBlank() || amount <= 0) {
-            return 0;
-        }
-
-        long reserved = getRoutedAmount(ctx, direction, variant);
-        if (reserved < 0) {
-            reserved = 0;
-        }
-
-        try (Transaction transaction = Transaction.openOuter()) {
-            long requested = amount + reserved;
-            long accepted = storage.insert(variant, requested, transaction);
-            long available = accepted - reserved;
-            return Math.max(0, available);
-        }
+        long capacity = sides.getCapacity(direction, stack);
+        long reserved = sides.getReserved(direction, stack);
+        return Math.max(0, Math.min(stack.getCount(), capacity - reserved));
     }
 
-    private long getRoutedAmount(PipeContext ctx, Direction direction, ItemVariant variant) {
-        long total = 0;
-        for (TravelingItem other : ctx.blockEntity().getTravelingItems()) {
-            if (!other.isRouted()) {
-                continue;
-            }
-
-            if (other.getDirection() != direction) {
-                continue;
-            }
-
-            ItemVariant otherVariant = ItemVariant.of(other.getStack());
-            if (!variant.equals(otherVariant)) {
-                continue;
-            }
-
-            total += other.getStack().getCount();
+    private CapacitySnapshot getCapacitySnapshot(PipeContext ctx) {
+        if (ctx.getCache(this) instanceof CapacitySnapshot snapshot) {
+            return snapshot;
         }
-        return total;
+        CapacitySnapshot snapshot = new CapacitySnapshot();
+        ctx.setCache(this, snapshot);
+        return snapshot;
     }
 
-    private RoutePlan splitToInventoryAndPipes(
-            PipeContext ctx,
+    private static RoutePlan splitToInventoryAndPipes(
+            Sides sides,
             TravelingItem item,
             List<Direction> inventoryDirections,
             List<Long> amounts,
@@ -135,7 +157,11 @@ public class InsertionModule implements Module {
         }
 
         if (remaining > 0) {
-            Direction chosen = chooseRandomDirection(ctx, item, pipeDirections);
+            Direction chosen = sides.nextHopToRemoteInventory(item.getStack(), DirectionMask.of(pipeDirections));
+            if (chosen == null) {
+                chosen = PipeRandom.chooseDirection(
+                        sides.getGameTime(), sides.getPos(), item.getDirection(), pipeDirections);
+            }
             ItemStack stack = item.getStack().copy();
             stack.setCount((int) remaining);
             split.add(new TravelingItem(stack, chosen, item.getSpeed()));
@@ -144,17 +170,138 @@ public class InsertionModule implements Module {
         return RoutePlan.split(split);
     }
 
-    private Direction chooseRandomDirection(PipeContext ctx, TravelingItem item, List<Direction> options) {
-        long seed = mixHash(
-                ctx.pos().asLong(), ctx.world().getGameTime(), item.getDirection().get3DDataValue());
-        Random random = new Random(seed);
-        return options.get(random.nextInt(options.size()));
+    /**
+     * The sides of a pipe in the level: connection types from its context, capacities from its per-tick
+     * {@link CapacitySnapshot}, and reservations and remote inventories from the scheduler on the server.
+     * Clients only see this pipe's own routed items and pick a random pipe when every neighbor is full.
+     */
+    private record ContextSides(PipeContext ctx, CapacitySnapshot snapshot) implements Sides {
+        @Override
+        public BlockPos getPos() {
+            return ctx.pos();
+        }
+
+        @Override
+        public long getGameTime() {
+            return ctx.world().getGameTime();
+        }
+
+        @Override
+        public boolean isInventory(Direction side) {
+            return ctx.isInventoryConnection(side);
+        }
+
+        @Override
+        public boolean isPipe(Direction side) {
+            return ctx.isNeighborPipe(side);
+        }
+
+        @Override
+        public long getCapacity(Direction side, ItemStack stack) {
+            return snapshot.getCapacity(ctx, side, stack);
+        }
+
+        @Override
+        public long getReserved(Direction side, ItemStack stack) {
+            return ctx.world() instanceof ServerLevel serverLevel
+                    ? PipeScheduler.get(serverLevel).getReservations().getReserved(ctx.pos().relative(side), stack)
+                    : ctx.blockEntity().getItemBuffer().getRoutedAmount(side, stack);
+        }
+
+        /**
+         * Follows the cheapest path to an inventory that still has space for the stack after reservations.
+         */
+        @Override
+        @Nullable public Direction nextHopToRemoteInventory(ItemStack stack, int pipeMask) {
+            if (!(ctx.world() instanceof ServerLevel serverLevel)) {
+                return null;
+            }
+            PipeScheduler scheduler = PipeScheduler.get(serverLevel);
+            PipeNetwork network = scheduler.getNetworks().getNetwork(ctx.blockEntity());
+            return network.nextHopToNearestRemoteSink(ctx.pos(), pipeMask, (pipe, side) -> {
+                BlockPos target = pipe.relative(side);
+                long capacity = scheduler.getRemoteCapacity().getCapacity(target, side.getOpposite(), stack);
+                return capacity > scheduler.getReservations().getReserved(target, stack);
+            });
+        }
     }
 
-    private long mixHash(long a, long b, long c) {
-        long hash = a;
-        hash = hash * 31 + b;
-        hash = hash * 31 + c;
-        return hash;
+    /**
+     * Insertable amount per adjacent side and variant, simulated at most once per tick.
+     *
+     * <p>Inventories do not change while pipes tick (handoffs run afterwards, see {@code PipeScheduler}),
+     * so one simulated insert per side and variant serves every item routed this tick. Storage lookups are
+     * cached for the tick as well.
+     */
+    private static final class CapacitySnapshot {
+        // Large enough that the simulated insert is limited by the inventory, not the request
+        private static final long PROBE_AMOUNT = Integer.MAX_VALUE;
+        private static final int INITIAL_CAPACITY = 4;
+
+        private long gameTime = Long.MIN_VALUE;
+        @SuppressWarnings("unchecked")
+        private final Storage<ItemVariant>[] storages = new Storage[6];
+        private int lookedUpSides = 0;
+
+        private ItemStack[] templates = new ItemStack[INITIAL_CAPACITY];
+        private byte[] sides = new byte[INITIAL_CAPACITY];
+        private long[] capacities = new long[INITIAL_CAPACITY];
+        private int size = 0;
+
+        long getCapacity(PipeContext ctx, Direction side, ItemStack stack) {
+            long now = ctx.world().getGameTime();
+            if (now != gameTime) {
+                reset(now);
+            }
+
+            byte sideId = (byte) side.get3DDataValue();
+            for (int i = 0; i < size; i++) {
+                if (sides[i] == sideId && ItemStack.isSameItemSameComponents(templates[i], stack)) {
+                    return capacities[i];
+                }
+            }
+
+            long capacity = simulateInsert(getStorage(ctx, side), stack);
+            if (size == templates.length) {
+                int grown = templates.length * 2;
+                templates = Arrays.copyOf(templates, grown);
+                sides = Arrays.copyOf(sides, grown);
+                capacities = Arrays.copyOf(capacities, grown);
+            }
+            // Items keep their stack for the whole tick and the snapshot is reset next tick
+            templates[size] = stack;
+            sides[size] = sideId;
+            capacities[size] = capacity;
+            size++;
+            return capacity;
+        }
+
+        private void reset(long now) {
+            gameTime = now;
+            Arrays.fill(templates, 0, size, null);
+            Arrays.fill(storages, null);
+            lookedUpSides = 0;
+            size = 0;
+        }
+
+        @Nullable private Storage<ItemVariant> getStorage(PipeContext ctx, Direction side) {
+            int bit = 1 << side.get3DDataValue();
+            if ((lookedUpSides & bit) == 0) {
+                lookedUpSides |= bit;
+                BlockPos targetPos = ctx.pos().relative(side);
+                storages[side.get3DDataValue()] =
+                        ItemStorage.SIDED.find(ctx.world(), targetPos, side.getOpposite());
+            }
+            return storages[side.get3DDataValue()];
+        }
+
+        private static long simulateInsert(@Nullable Storage<ItemVariant> storage, ItemStack stack) {
+            if (storage == null) {
+                return 0;
+            }
+            try (Transaction transaction = Transaction.openOuter()) {
+                return storage.insert(ItemVariant.of(stack), PROBE_AMOUNT, transaction);
+            }
+        }
     }
 }
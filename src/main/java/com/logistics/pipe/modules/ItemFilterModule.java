@@ -2,11 +2,14 @@ package com.logistics.pipe.modules;
 
 import com.logistics.pipe.PipeContext;
 import com.logistics.pipe.block.entity.PipeBlockEntity;
+import com.logistics.pipe.runtime.DirectionMask;
 import com.logistics.pipe.runtime.RoutePlan;
 import com.logistics.pipe.runtime.TravelingItem;
 import com.logistics.pipe.ui.ItemFilterScreenHandler;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.registries.BuiltInRegistries;
@@ -14,9 +17,11 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.StringTag;
 import net.minecraft.network.chat.Component;
+import net.minecraft.resources.Identifier;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.level.Level;
 
 /**
@@ -33,28 +38,8 @@ public class ItemFilterModule implements Module {
 
     @Override
     public RoutePlan route(PipeContext ctx, TravelingItem item, List<Direction> options) {
-        if (options == null) {
-            options = List.of();
-        }
-
-        String itemId = BuiltInRegistries.ITEM.getKey(item.getStack().getItem()).toString();
-        List<Direction> matches = new ArrayList<>();
-        List<Direction> fallbacks = new ArrayList<>();
-
-        for (Direction direction : options) {
-            List<String> filters = getFiltersForSide(ctx, direction);
-            if (filters.isEmpty()) {
-                fallbacks.add(direction);
-                continue;
-            }
-
-            if (filters.contains(itemId)) {
-                matches.add(direction);
-            }
-        }
-
-        List<Direction> candidates = !matches.isEmpty() ? matches : fallbacks;
-        return RoutePlan.reroute(candidates);
+        int optionMask = options == null ? DirectionMask.NONE : DirectionMask.of(options);
+        return getCompiledFilters(ctx).route(item, optionMask);
     }
 
     @Override
@@ -142,16 +127,76 @@ public class ItemFilterModule implements Module {
         } else {
             ctx.remove(this, FILTERS);
         }
+        ctx.setCache(this, null);
+    }
+
+    private CompiledFilters getCompiledFilters(PipeContext ctx) {
+        if (ctx.getCache(this) instanceof CompiledFilters compiled) {
+            return compiled;
+        }
+        CompiledFilters compiled = CompiledFilters.compile(ctx.getCompoundTag(this, FILTERS));
+        ctx.setCache(this, compiled);
+        return compiled;
     }
 
-    private List<String> getFiltersForSide(PipeContext ctx, Direction direction) {
-        List<String> slots = getFilterSlots(ctx, direction);
-        List<String> ids = new ArrayList<>(slots.size());
-        for (String id : slots) {
-            if (!id.isEmpty()) {
-                ids.add(id);
+    /**
+     * Filter configuration compiled into an item -> side mask table, rebuilt only when the filters change.
+     * Routing is then one identity lookup and a mask intersection instead of reparsing the NBT per item.
+     */
+    public static final class CompiledFilters {
+        // Sides with at least one filter entry (including ids that no longer resolve to an item)
+        private final int filteredSides;
+        private final Map<Item, Integer> sidesByItem;
+
+        private CompiledFilters(int filteredSides, Map<Item, Integer> sidesByItem) {
+            this.filteredSides = filteredSides;
+            this.sidesByItem = sidesByItem;
+        }
+
+        /**
+         * Compile the saved filters: a list of item ids per side, keyed by the side's name.
+         */
+        public static CompiledFilters compile(CompoundTag filters) {
+            int filteredSides = DirectionMask.NONE;
+            Map<Item, Integer> sidesByItem = new IdentityHashMap<>();
+
+            for (Direction direction : FILTER_ORDER) {
+                ListTag list = filters.getList(direction.getName()).orElse(null);
+                if (list == null) {
+                    continue;
+                }
+
+                int bit = DirectionMask.bit(direction);
+                for (int i = 0; i < list.size() && i < FILTER_SLOTS_PER_SIDE; i++) {
+                    String id = list.getString(i).orElse("");
+                    if (id.isEmpty()) {
+                        continue;
+                    }
+
+                    filteredSides |= bit;
+                    Identifier key = Identifier.tryParse(id);
+                    if (key != null) {
+                        BuiltInRegistries.ITEM.getOptional(key)
+                                .ifPresent(filterItem -> sidesByItem.merge(filterItem, bit, (a, b) -> a | b));
+                    }
+                }
             }
+
+            return new CompiledFilters(filteredSides, sidesByItem);
+        }
+
+        /**
+         * Route to the sides in {@code optionMask} whose filters match the item, or else to the unfiltered ones.
+         */
+        public RoutePlan route(TravelingItem item, int optionMask) {
+            int matches = sidesFor(item.getStack().getItem()) & optionMask;
+            int candidates = matches != DirectionMask.NONE ? matches : optionMask & ~filteredSides;
+            return RoutePlan.reroute(candidates);
+        }
+
+        private int sidesFor(Item item) {
+            Integer sides = sidesByItem.get(item);
+            return sides != null ? sides : DirectionMask.NONE;
         }
-        return ids;
     }
 }
@@ -0,0 +1,161 @@
+package com.logistics.pipe.modules;
+
+import com.logistics.pipe.PipeContext;
+import com.logistics.pipe.runtime.RoutePlan;
+import com.logistics.pipe.runtime.TravelingItem;
+import java.util.Arrays;
+import java.util.List;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.InteractionResult;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.context.UseOnContext;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Spreads items evenly over the available exits instead of picking one at random.
+ *
+ * <p>Uses smooth weighted round-robin: every routed item adds each option's weight to its credit, the option
+ * with the most credit wins and pays back the sum of the weights. With equal weights this is plain
+ * round-robin; a side with weight 2 gets twice the items of a side with weight 1, interleaved rather than in
+ * bursts. Weight 0 excludes a side unless no weighted side is available.
+ *
+ * <p>Credits and weights live in the pipe's typed module state. Client and server route the same items in
+ * the same order, so they normally agree; if they do not, the server's RouteItem sync wins.
+ *
+ * <p>Can be used as a module of its own or as the routing strategy of a {@link TransportModule}.
+ */
+public class LoadBalancingModule implements Module {
+    public static final int MAX_WEIGHT = 4;
+    private static final int DEFAULT_WEIGHT = 1;
+    private static final String WEIGHTS = "weights";
+    private static final String CREDITS = "credits";
+
+    @Override
+    public ModuleState createState() {
+        return new State();
+    }
+
+    @Override
+    public RoutePlan route(PipeContext ctx, TravelingItem item, List<Direction> options) {
+        if (options == null || options.size() < 2) {
+            return RoutePlan.pass();
+        }
+
+        State state = ctx.state(this);
+        int totalWeight = 0;
+        int best = -1;
+        for (Direction direction : options) {
+            int side = direction.get3DDataValue();
+            int weight = state.weights[side];
+            if (weight <= 0) {
+                continue;
+            }
+            state.credits[side] += weight;
+            totalWeight += weight;
+            if (best < 0 || state.credits[side] > state.credits[best]) {
+                best = side;
+            }
+        }
+
+        if (best < 0) {
+            return RoutePlan.pass(); // every option is excluded, fall back to default routing
+        }
+
+        state.credits[best] -= totalWeight;
+        return RoutePlan.reroute(Direction.from3DDataValue(best));
+    }
+
+    /**
+     * Sneak-use with an empty hand on an arm cycles that side's weight (1, 2, ... MAX_WEIGHT, 0).
+     */
+    @Override
+    public InteractionResult onUseWithoutItem(PipeContext ctx, UseOnContext usage) {
+        Player player = usage.getPlayer();
+        if (player == null || !player.isShiftKeyDown()) {
+            return InteractionResult.PASS;
+        }
+
+        if (ctx.world().isClientSide()) {
+            return InteractionResult.SUCCESS;
+        }
+
+        Direction side = getClickedArm(ctx, usage);
+        int weight = (getWeight(ctx, side) + 1) % (MAX_WEIGHT + 1);
+        setWeight(ctx, side, weight);
+        player.displayClientMessage(
+                Component.translatable("message.logistics.pipe.load_balancer.weight", side.getName(), weight), true);
+        return InteractionResult.SUCCESS;
+    }
+
+    public int getWeight(PipeContext ctx, Direction direction) {
+        return ctx.<State>state(this).weights[direction.get3DDataValue()];
+    }
+
+    public void setWeight(PipeContext ctx, Direction direction, int weight) {
+        State state = ctx.state(this);
+        int side = direction.get3DDataValue();
+        int clamped = Math.clamp(weight, 0, MAX_WEIGHT);
+        if (state.weights[side] == clamped) {
+            return;
+        }
+
+        state.weights[side] = clamped;
+        Arrays.fill(state.credits, 0);
+        ctx.markDirtyAndSync();
+    }
+
+    /**
+     * The arm the player clicked: the axis along which the hit is furthest from the pipe center.
+     */
+    private static Direction getClickedArm(PipeContext ctx, UseOnContext usage) {
+        Vec3 offset = usage.getClickLocation().subtract(Vec3.atCenterOf(ctx.pos()));
+        double x = Math.abs(offset.x);
+        double y = Math.abs(offset.y);
+        double z = Math.abs(offset.z);
+        if (x >= y && x >= z) {
+            return offset.x > 0 ? Direction.EAST : Direction.WEST;
+        }
+        if (y >= z) {
+            return offset.y > 0 ? Direction.UP : Direction.DOWN;
+        }
+        return offset.z > 0 ? Direction.SOUTH : Direction.NORTH;
+    }
+
+    private static final class State implements ModuleState {
+        private final int[] weights = new int[6];
+        private final int[] credits = new int[6];
+
+        private State() {
+            Arrays.fill(weights, DEFAULT_WEIGHT);
+        }
+
+        @Override
+        public void read(CompoundTag tag) {
+            tag.getIntArray(WEIGHTS).filter(values -> values.length == 6).ifPresent(values -> {
+                for (int i = 0; i < 6; i++) {
+                    weights[i] = Math.clamp(values[i], 0, MAX_WEIGHT);
+                }
+            });
+            tag.getIntArray(CREDITS)
+                    .filter(values -> values.length == 6)
+                    .ifPresent(values -> System.arraycopy(values, 0, credits, 0, 6));
+        }
+
+        @Override
+        public void write(CompoundTag tag) {
+            if (Arrays.stream(weights).allMatch(weight -> weight == DEFAULT_WEIGHT)) {
+                tag.remove(WEIGHTS);
+            } else {
+                tag.putIntArray(WEIGHTS, weights.clone());
+            }
+
+            if (Arrays.stream(credits).allMatch(credit -> credit == 0)) {
+                tag.remove(CREDITS);
+            } else {
+                tag.putIntArray(CREDITS, credits.clone());
+            }
+        }
+    }
+}
@@ -15,6 +15,11 @@ import org.jetbrains.annotations.Nullable;
 public class MergerModule implements Module {
     private static final String OUTPUT_DIRECTION = "output_direction";
 
+    @Override
+    public ModuleState createState() {
+        return new State();
+    }
+
     @Override
     public void onConnectionsChanged(PipeContext ctx, List<Direction> options) {
         List<Direction> outputs = ctx.getConnectedDirections();
@@ -69,33 +74,16 @@ public class MergerModule implements Module {
     }
 
     private @Nullable Direction getOutputDirection(PipeContext ctx) {
-        CompoundTag state = ctx.moduleState(getStateKey());
-        if (!state.contains(OUTPUT_DIRECTION)) {
-            return null;
-        }
-        String directionStr = state.getString(OUTPUT_DIRECTION).orElse("");
-        if (directionStr.isEmpty()) {
-            return null;
-        }
-        try {
-            return Direction.from3DDataValue(Integer.parseInt(directionStr));
-        } catch (NumberFormatException e) {
-            return null;
-        }
+        return ctx.<State>state(this).outputDirection;
     }
 
     private void setOutputDirection(PipeContext ctx, @Nullable Direction direction) {
-        Direction current = getOutputDirection(ctx);
-        if (current == direction) {
+        State state = ctx.state(this);
+        if (state.outputDirection == direction) {
             return;
         }
 
-        if (direction == null) {
-            ctx.remove(this, OUTPUT_DIRECTION);
-        } else {
-            ctx.saveString(this, OUTPUT_DIRECTION, String.valueOf(direction.get3DDataValue()));
-        }
-
+        state.outputDirection = direction;
         ctx.markDirtyAndSync();
     }
 
@@ -120,4 +108,18 @@ public class MergerModule implements Module {
     private boolean isOutputDirection(PipeContext ctx, Direction direction) {
         return getOutputDirection(ctx) == direction;
     }
+
+    private static final class State implements ModuleState {
+        @Nullable private Direction outputDirection;
+
+        @Override
+        public void read(CompoundTag tag) {
+            outputDirection = ModuleState.readDirection(tag, OUTPUT_DIRECTION);
+        }
+
+        @Override
+        public void write(CompoundTag tag) {
+            ModuleState.writeDirection(tag, OUTPUT_DIRECTION, outputDirection);
+        }
+    }
 }
@@ -20,6 +20,15 @@ import org.jetbrains.annotations.Nullable;
 public interface Module {
     default void onTick(PipeContext ctx) {}
 
+    /**
+     * Return true if this module needs to run every tick.
+     * Modules that override onTick() should also override this to return true;
+     * otherwise idle pipes using this module are allowed to go dormant.
+     */
+    default boolean hasTicks() {
+        return false;
+    }
+
     default float getAcceleration(PipeContext ctx) {
         return 0f;
     }
@@ -76,6 +85,14 @@ public interface Module {
      */
     default void randomDisplayTick(PipeContext ctx, RandomSource random) {}
 
+    /**
+     * Create the typed state object for one pipe, or null if this module keeps no typed state.
+     * See {@link ModuleState}.
+     */
+    @Nullable default ModuleState createState() {
+        return null;
+    }
+
     /**
      * Get the NBT state key for this module.
      * Defaults to lowercase class simple name (e.g., "mergermodule").
@@ -224,4 +241,16 @@ public interface Module {
     default boolean acceptsLowTierEnergyFrom(PipeContext ctx, Direction from) {
         return false; // Default: don't accept (only modules that need energy should override)
     }
+
+    /**
+     * Whether this module pulls items out of the inventory on the given side.
+     * Such inventories are never used as routing destinations, so items are not sent back to their source.
+     *
+     * @param ctx the pipe context
+     * @param direction side of the inventory connection
+     * @return true if the inventory on this side is an extraction source
+     */
+    default boolean isExtractionSource(PipeContext ctx, Direction direction) {
+        return false;
+    }
 }
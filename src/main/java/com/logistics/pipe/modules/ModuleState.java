@@ -0,0 +1,48 @@
+package com.logistics.pipe.modules;
+
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Typed runtime state of one module in one pipe, kept in plain fields on the block entity.
+ *
+ * <p>Modules that return a state from {@link Module#createState()} access it through
+ * {@link com.logistics.pipe.PipeContext#state(Module)} instead of the string-keyed NBT helpers. The state
+ * is read from the module's NBT compound when first used after a load or client sync, and written back
+ * only when the pipe is saved or its module state is synced, so existing saves keep working.
+ */
+public interface ModuleState {
+    /**
+     * Read fields from the module's NBT compound (keys missing from older saves keep their defaults).
+     */
+    void read(CompoundTag tag);
+
+    /**
+     * Write fields to the module's NBT compound, removing keys for unset values.
+     */
+    void write(CompoundTag tag);
+
+    /**
+     * Read a direction stored as its 3D data value in a string (the format used by existing saves).
+     */
+    @Nullable static Direction readDirection(CompoundTag tag, String key) {
+        String value = tag.getString(key).orElse("");
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Direction.from3DDataValue(Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static void writeDirection(CompoundTag tag, String key, @Nullable Direction direction) {
+        if (direction == null) {
+            tag.remove(key);
+        } else {
+            tag.putString(key, String.valueOf(direction.get3DDataValue()));
+        }
+    }
+}
@@ -17,25 +17,22 @@ import net.minecraft.world.item.DyeColor;
 import net.minecraft.resources.Identifier;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
 import org.jetbrains.annotations.Nullable;
 
 public class PipeMarkingModule implements Module {
     public static final String COLOR_KEY = "pipe_color";
 
+    @Override
+    public ModuleState createState() {
+        return new State();
+    }
+
     /**
      * Read the stored marking color for this pipe, if any.
      */
     @Nullable public DyeColor getStoredColor(PipeContext ctx) {
-        String colorId = ctx.getString(this, COLOR_KEY, "");
-        if (colorId.isEmpty()) {
-            return null;
-        }
-        for (DyeColor color : DyeColor.values()) {
-            if (color.getName().equals(colorId)) {
-                return color;
-            }
-        }
-        return null;
+        return ctx.<State>state(this).color;
     }
 
     /**
@@ -58,13 +55,13 @@ public class PipeMarkingModule implements Module {
             return InteractionResult.PASS;
         }
 
-        String colorId = color.getName();
-        String current = ctx.getString(this, COLOR_KEY, "");
-        if (colorId.equals(current)) {
+        State state = ctx.state(this);
+        if (state.color == color) {
             return InteractionResult.SUCCESS;
         }
 
-        ctx.saveString(this, COLOR_KEY, colorId);
+        state.color = color;
+        ctx.invalidateConnections();
         ctx.markDirtyAndSync();
         EquipmentSlot slot = usage.getHand() == InteractionHand.MAIN_HAND
                 ? EquipmentSlot.MAINHAND
@@ -79,11 +76,13 @@ public class PipeMarkingModule implements Module {
     public InteractionResult onUseWithoutItem(PipeContext ctx, UseOnContext usage) {
         Player player = usage.getPlayer();
         if (player != null && player.isShiftKeyDown()) {
-            if (!ctx.getString(this, COLOR_KEY, "").isEmpty()) {
+            State state = ctx.state(this);
+            if (state.color != null) {
                 if (ctx.world().isClientSide()) {
                     return InteractionResult.SUCCESS;
                 }
-                ctx.remove(this, COLOR_KEY);
+                state.color = null;
+                ctx.invalidateConnections();
                 ctx.markDirtyAndSync();
             }
             return InteractionResult.SUCCESS;
@@ -112,13 +111,15 @@ public class PipeMarkingModule implements Module {
             return true;
         }
 
-        String color = ctx.getString(this, COLOR_KEY, "");
-        if (color.isEmpty()) {
+        DyeColor color = getStoredColor(ctx);
+        if (color == null) {
             return true;
         }
 
         Pipe neighborPipe = neighborPipeBlock.getPipe();
-        if (neighborPipe == null || neighborPipe.getModule(PipeMarkingModule.class) == null) {
+        PipeMarkingModule neighborModule =
+                neighborPipe == null ? null : neighborPipe.getModule(PipeMarkingModule.class);
+        if (neighborModule == null) {
             return true;
         }
 
@@ -127,12 +128,25 @@ public class PipeMarkingModule implements Module {
             return true;
         }
 
-        PipeContext neighborContext =
-                new PipeContext(ctx.world(), neighborPos, ctx.world().getBlockState(neighborPos), neighborEntity);
-        String neighborColor = neighborContext.getString(this, COLOR_KEY, "");
-        if (neighborColor.isEmpty()) {
-            return true;
+        DyeColor neighborColor = neighborEntity.<State>getModuleState(neighborModule).color;
+        return neighborColor == null || color == neighborColor;
+    }
+
+    private static final class State implements ModuleState {
+        @Nullable private DyeColor color;
+
+        @Override
+        public void read(CompoundTag tag) {
+            color = DyeColor.byName(tag.getString(COLOR_KEY).orElse(""), null);
+        }
+
+        @Override
+        public void write(CompoundTag tag) {
+            if (color == null) {
+                tag.remove(COLOR_KEY);
+            } else {
+                tag.putString(COLOR_KEY, color.getName());
+            }
         }
-        return color.equals(neighborColor);
     }
 }
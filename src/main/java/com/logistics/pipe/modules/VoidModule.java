@@ -1,5 +1,6 @@
 package com.logistics.pipe.modules;
 
+import com.logistics.core.lib.metrics.LogisticsMetrics;
 import com.logistics.pipe.PipeContext;
 import com.logistics.pipe.runtime.RoutePlan;
 import java.util.List;
@@ -12,6 +13,9 @@ public class VoidModule implements Module {
             PipeContext ctx,
             com.logistics.pipe.runtime.TravelingItem item,
             List<net.minecraft.core.Direction> options) {
+        if (!ctx.world().isClientSide()) {
+            LogisticsMetrics.ITEMS_VOIDED.add(item.getStack().getCount());
+        }
         return RoutePlan.discard();
     }
 
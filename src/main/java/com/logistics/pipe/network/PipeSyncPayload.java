@@ -0,0 +1,167 @@
+package com.logistics.pipe.network;
+
+import com.logistics.LogisticsPipe;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * Incremental update for one pipe, sent to clients tracking its chunk.
+ *
+ * <p>Carries only what changed since the last update: items added, routed, removed, merged, stalled or handed off
+ * (by their per-pipe id), the packed connection types and the module state. Full block entity NBT is only sent
+ * when the chunk is first loaded or the block state changes.
+ */
+public record PipeSyncPayload(BlockPos pos, List<Op> ops) implements CustomPacketPayload {
+    public static final CustomPacketPayload.Type<PipeSyncPayload> TYPE =
+            new CustomPacketPayload.Type<>(LogisticsPipe.identifier("pipe_sync"));
+
+    public static final StreamCodec<RegistryFriendlyByteBuf, PipeSyncPayload> STREAM_CODEC =
+            StreamCodec.of(PipeSyncPayload::write, PipeSyncPayload::read);
+
+    private static final byte ADD_ITEM = 0;
+    private static final byte ROUTE_ITEM = 1;
+    private static final byte REMOVE_ITEM = 2;
+    private static final byte HAND_OFF_ITEM = 3;
+    private static final byte CONNECTIONS = 4;
+    private static final byte MODULE_STATE = 5;
+    private static final byte MERGE_ITEMS = 6;
+    private static final byte STALL_ITEM = 7;
+
+    public sealed interface Op
+            permits AddItem, RouteItem, RemoveItem, HandOffItem, MergeItems, StallItem, Connections, ModuleState {}
+
+    /**
+     * An item entered the pipe (inserted or produced by a split).
+     */
+    public record AddItem(int id, ItemStack stack, Direction direction, float speed, float progress, boolean routed)
+            implements Op {}
+
+    /**
+     * An item was routed at the pipe center.
+     */
+    public record RouteItem(int id, Direction direction) implements Op {}
+
+    /**
+     * An item left the pipe without reaching its exit (dropped, discarded or replaced by a split).
+     */
+    public record RemoveItem(int id) implements Op {}
+
+    /**
+     * An item reached its exit and was handed to the next pipe or inventory.
+     */
+    public record HandOffItem(int id) implements Op {}
+
+    /**
+     * Two co-traveling items were merged (see {@code PipeItemBuffer#mergeInto}).
+     */
+    public record MergeItems(int targetId, int sourceId) implements Op {}
+
+    /**
+     * An item is waiting at its exit because the target refused (part of) it. Carries the item so clients
+     * that already removed it after passing the exit can show it again.
+     */
+    public record StallItem(int id, ItemStack stack, Direction direction) implements Op {}
+
+    /**
+     * Connection types changed (see {@code PipeBlockEntity#getPackedConnectionTypes()}).
+     */
+    public record Connections(int packedTypes) implements Op {}
+
+    /**
+     * Module state changed (configuration, module timers that affect rendering, ...).
+     */
+    public record ModuleState(CompoundTag state) implements Op {}
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    private static void write(RegistryFriendlyByteBuf buf, PipeSyncPayload payload) {
+        buf.writeBlockPos(payload.pos());
+        buf.writeVarInt(payload.ops().size());
+        for (Op op : payload.ops()) {
+            switch (op) {
+                case AddItem add -> {
+                    buf.writeByte(ADD_ITEM);
+                    buf.writeVarInt(add.id());
+                    ItemStack.STREAM_CODEC.encode(buf, add.stack());
+                    buf.writeByte(add.direction().get3DDataValue());
+                    buf.writeFloat(add.speed());
+                    buf.writeFloat(add.progress());
+                    buf.writeBoolean(add.routed());
+                }
+                case RouteItem route -> {
+                    buf.writeByte(ROUTE_ITEM);
+                    buf.writeVarInt(route.id());
+                    buf.writeByte(route.direction().get3DDataValue());
+                }
+                case RemoveItem remove -> {
+                    buf.writeByte(REMOVE_ITEM);
+                    buf.writeVarInt(remove.id());
+                }
+                case HandOffItem handOff -> {
+                    buf.writeByte(HAND_OFF_ITEM);
+                    buf.writeVarInt(handOff.id());
+                }
+                case MergeItems merge -> {
+                    buf.writeByte(MERGE_ITEMS);
+                    buf.writeVarInt(merge.targetId());
+                    buf.writeVarInt(merge.sourceId());
+                }
+                case StallItem stall -> {
+                    buf.writeByte(STALL_ITEM);
+                    buf.writeVarInt(stall.id());
+                    ItemStack.STREAM_CODEC.encode(buf, stall.stack());
+                    buf.writeByte(stall.direction().get3DDataValue());
+                }
+                case Connections connections -> {
+                    buf.writeByte(CONNECTIONS);
+                    buf.writeVarInt(connections.packedTypes());
+                }
+                case ModuleState moduleState -> {
+                    buf.writeByte(MODULE_STATE);
+                    ByteBufCodecs.COMPOUND_TAG.encode(buf, moduleState.state());
+                }
+            }
+        }
+    }
+
+    private static PipeSyncPayload read(RegistryFriendlyByteBuf buf) {
+        BlockPos pos = buf.readBlockPos();
+        int count = buf.readVarInt();
+        List<Op> ops = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte kind = buf.readByte();
+            ops.add(switch (kind) {
+                case ADD_ITEM -> new AddItem(
+                        buf.readVarInt(),
+                        ItemStack.STREAM_CODEC.decode(buf),
+                        Direction.from3DDataValue(buf.readByte()),
+                        buf.readFloat(),
+                        buf.readFloat(),
+                        buf.readBoolean());
+                case ROUTE_ITEM -> new RouteItem(buf.readVarInt(), Direction.from3DDataValue(buf.readByte()));
+                case REMOVE_ITEM -> new RemoveItem(buf.readVarInt());
+                case HAND_OFF_ITEM -> new HandOffItem(buf.readVarInt());
+                case MERGE_ITEMS -> new MergeItems(buf.readVarInt(), buf.readVarInt());
+                case STALL_ITEM -> new StallItem(
+                        buf.readVarInt(),
+                        ItemStack.STREAM_CODEC.decode(buf),
+                        Direction.from3DDataValue(buf.readByte()));
+                case CONNECTIONS -> new Connections(buf.readVarInt());
+                case MODULE_STATE -> new ModuleState(ByteBufCodecs.COMPOUND_TAG.decode(buf));
+                default -> throw new IllegalArgumentException("Unknown pipe sync op: " + kind);
+            });
+        }
+        return new PipeSyncPayload(pos, ops);
+    }
+}
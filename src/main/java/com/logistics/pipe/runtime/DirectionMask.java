@@ -0,0 +1,73 @@
+package com.logistics.pipe.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.core.Direction;
+
+/**
+ * Sets of directions packed into an int (bit {@code 1 << direction.get3DDataValue()} per direction).
+ *
+ * <p>Used on the tick path instead of building direction lists. {@link #toList(int)} returns a shared
+ * immutable list per mask, ordered by {@link Direction#get3DDataValue()}, for APIs that take a list.
+ */
+public final class DirectionMask {
+    public static final int NONE = 0;
+    public static final int ALL = (1 << 6) - 1;
+
+    private static final List<Direction>[] LISTS = createLists();
+
+    private DirectionMask() {}
+
+    public static int bit(Direction direction) {
+        return 1 << direction.get3DDataValue();
+    }
+
+    public static boolean contains(int mask, Direction direction) {
+        return (mask & bit(direction)) != 0;
+    }
+
+    public static int count(int mask) {
+        return Integer.bitCount(mask);
+    }
+
+    /**
+     * Get the n-th direction (0-based, in {@link Direction#get3DDataValue()} order) contained in the mask.
+     */
+    public static Direction get(int mask, int n) {
+        int remaining = mask;
+        for (int i = 0; i < n; i++) {
+            remaining &= remaining - 1;
+        }
+        return Direction.from3DDataValue(Integer.numberOfTrailingZeros(remaining));
+    }
+
+    public static int of(Iterable<Direction> directions) {
+        int mask = NONE;
+        for (Direction direction : directions) {
+            mask |= bit(direction);
+        }
+        return mask;
+    }
+
+    /**
+     * Shared immutable list of the directions in the mask.
+     */
+    public static List<Direction> toList(int mask) {
+        return LISTS[mask & ALL];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Direction>[] createLists() {
+        List<Direction>[] lists = new List[ALL + 1];
+        for (int mask = 0; mask <= ALL; mask++) {
+            List<Direction> directions = new ArrayList<>(6);
+            for (int i = 0; i < 6; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    directions.add(Direction.from3DDataValue(i));
+                }
+            }
+            lists[mask] = List.copyOf(directions);
+        }
+        return lists;
+    }
+}
@@ -0,0 +1,126 @@
+package com.logistics.pipe.runtime;
+
+import com.logistics.pipe.block.entity.PipeBlockEntity;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * Level-wide view of items that are already on their way into each inventory, so several pipes feeding
+ * the same inventory do not all count the same free space and overfill it.
+ *
+ * <p>Amounts are not copied here. Each pipe's {@link PipeItemBuffer} already keeps a ledger of what it has
+ * routed per side and variant, and releases it on handoff, drop, split or removal. This index only
+ * remembers which pipe sides have routed items toward an inventory position, and sums their ledgers on
+ * query. Feeders with nothing routed toward the target are pruned during queries, and a pipe's entries are
+ * dropped when it is broken or its chunk unloads ({@link #removeFeeder}), so the index only ever holds
+ * loaded pipes, at most one entry per pipe side.
+ *
+ * <p>Reservations are per position, not per side: two pipes feeding a chest from different faces share
+ * its slots. Sided inventories with separate slots per face are counted conservatively.
+ */
+public final class InsertionReservations {
+    private final Map<BlockPos, Feeders> feedersByTarget = new HashMap<>();
+
+    /**
+     * Record that the pipe has routed items out of the given side toward the inventory next to it.
+     */
+    public void addFeeder(PipeBlockEntity pipe, Direction side) {
+        BlockPos target = pipe.getBlockPos().relative(side);
+        Feeders feeders = feedersByTarget.get(target);
+        if (feeders == null) {
+            feeders = new Feeders();
+            feedersByTarget.put(target, feeders);
+        }
+        feeders.add(pipe, (byte) side.get3DDataValue());
+    }
+
+    /**
+     * Forget every side of the pipe. Called when the pipe is removed, including chunk unloads.
+     */
+    public void removeFeeder(PipeBlockEntity pipe) {
+        for (Direction side : Direction.values()) {
+            BlockPos target = pipe.getBlockPos().relative(side);
+            Feeders feeders = feedersByTarget.get(target);
+            if (feeders != null && feeders.remove(pipe) && feeders.size == 0) {
+                feedersByTarget.remove(target);
+            }
+        }
+    }
+
+    /**
+     * Total count of the stack's variant already routed toward the inventory at the given position by any pipe.
+     */
+    public long getReserved(BlockPos target, ItemStack stack) {
+        Feeders feeders = feedersByTarget.get(target);
+        if (feeders == null) {
+            return 0;
+        }
+
+        long reserved = feeders.sumAndPrune(stack);
+        if (feeders.size == 0) {
+            feedersByTarget.remove(target);
+        }
+        return reserved;
+    }
+
+    public int getTargetCount() {
+        return feedersByTarget.size();
+    }
+
+    private static final class Feeders {
+        private PipeBlockEntity[] pipes = new PipeBlockEntity[2];
+        private byte[] sides = new byte[2];
+        private int size = 0;
+
+        void add(PipeBlockEntity pipe, byte side) {
+            for (int i = 0; i < size; i++) {
+                if (pipes[i] == pipe && sides[i] == side) {
+                    return;
+                }
+            }
+            if (size == pipes.length) {
+                pipes = Arrays.copyOf(pipes, size * 2);
+                sides = Arrays.copyOf(sides, size * 2);
+            }
+            pipes[size] = pipe;
+            sides[size] = side;
+            size++;
+        }
+
+        boolean remove(PipeBlockEntity pipe) {
+            boolean removed = false;
+            for (int i = size - 1; i >= 0; i--) {
+                if (pipes[i] == pipe) {
+                    removeAt(i);
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+
+        long sumAndPrune(ItemStack stack) {
+            long total = 0;
+            for (int i = size - 1; i >= 0; i--) {
+                PipeBlockEntity pipe = pipes[i];
+                Direction side = Direction.from3DDataValue(sides[i]);
+                if (pipe.isRemoved() || !pipe.getItemBuffer().hasRoutedTo(side)) {
+                    removeAt(i);
+                    continue;
+                }
+                total += pipe.getItemBuffer().getRoutedAmount(side, stack);
+            }
+            return total;
+        }
+
+        private void removeAt(int index) {
+            int last = --size;
+            pipes[index] = pipes[last];
+            sides[index] = sides[last];
+            pipes[last] = null;
+        }
+    }
+}
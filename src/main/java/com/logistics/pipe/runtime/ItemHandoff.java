@@ -0,0 +1,77 @@
+package com.logistics.pipe.runtime;
+
+import com.logistics.core.lib.metrics.LogisticsMetrics;
+import com.logistics.core.lib.metrics.MetricsExporter;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * Moves an item that reached the end of its pipe segment into the block it is heading for.
+ *
+ * <p>Whatever the target refuses stays in the pipe, stalled at the exit, and is retried with a back-off per
+ * exit (see {@link PipeItemBuffer#isStallRetryDue}). A full pipe refuses handoffs too, so a jam backs up pipe
+ * by pipe to the source instead of dropping items. Items are only dropped when there is no target left to wait
+ * for.
+ *
+ * <p>Only touches the {@link PipeItemBuffer} and the {@link PipeWorld}; client sync and saving are up to the
+ * caller, based on the returned outcome.
+ */
+public final class ItemHandoff {
+    public enum Outcome {
+        /** The whole stack was inserted and left the buffer. */
+        DELIVERED,
+        /** Part of the stack was inserted; the rest is now stalled at the exit. */
+        PARTIAL,
+        /** Nothing was inserted; the item is now stalled at the exit. */
+        REFUSED,
+        /** Nothing was inserted and the item was already stalled, so nothing changed. */
+        WAITING,
+        /** There is no inventory or pipe to hand to; the item was dropped and left the buffer. */
+        DROPPED
+    }
+
+    private ItemHandoff() {}
+
+    /**
+     * Hand the item in the given slot to the block in front of it.
+     */
+    public static Outcome transfer(PipeWorld world, BlockPos pos, PipeItemBuffer items, int index) {
+        ItemStack stack = items.getStack(index);
+        Direction direction = items.getDirection(index);
+        float speed = items.getSpeed(index);
+        long inserted = world.insertItem(pos.relative(direction), direction.getOpposite(), stack, speed);
+        if (inserted == PipeWorld.NO_STORAGE) {
+            world.dropItem(pos, stack);
+            items.removeAt(index);
+            items.resetStallBackoff(direction);
+            return Outcome.DROPPED;
+        }
+
+        // Telling hops from deliveries costs a block entity lookup, so only while something reads the counters
+        if (inserted > 0 && MetricsExporter.isActive()) {
+            (world.isPipe(pos.relative(direction)) ? LogisticsMetrics.ITEMS_HOPPED : LogisticsMetrics.ITEMS_DELIVERED)
+                    .add(inserted);
+        }
+        if (inserted >= stack.getCount()) {
+            items.removeAt(index);
+            items.resetStallBackoff(direction);
+            return Outcome.DELIVERED;
+        }
+
+        if (inserted > 0) {
+            // The original stack may still be referenced by a pending sync op, so keep the remainder as a copy
+            items.setStack(index, stack.copyWithCount(stack.getCount() - (int) inserted));
+            items.resetStallBackoff(direction);
+        } else {
+            // Nothing moved: wait longer before the next stalled item through this side tries again
+            items.backOffStall(direction, world.getGameTime());
+            if (items.isStalled(index)) {
+                return Outcome.WAITING;
+            }
+        }
+
+        items.setStalled(index, true);
+        return inserted > 0 ? Outcome.PARTIAL : Outcome.REFUSED;
+    }
+}
@@ -0,0 +1,61 @@
+package com.logistics.pipe.runtime;
+
+import com.logistics.pipe.block.entity.PipeBlockEntity;
+import com.logistics.pipe.block.entity.PipeItemStorage;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * {@link PipeWorld} backed by a server level: inventories are found through the Transfer API, drops go through
+ * {@link PipeBlockEntity#dropItem}.
+ */
+public final class LevelPipeWorld implements PipeWorld {
+    private final ServerLevel level;
+
+    public LevelPipeWorld(ServerLevel level) {
+        this.level = level;
+    }
+
+    public ServerLevel getLevel() {
+        return level;
+    }
+
+    @Override
+    public long getGameTime() {
+        return level.getGameTime();
+    }
+
+    @Override
+    public long insertItem(BlockPos pos, Direction side, ItemStack stack, float speed) {
+        Storage<ItemVariant> storage = ItemStorage.SIDED.find(level, pos, side);
+        if (storage == null) {
+            return NO_STORAGE;
+        }
+
+        try (Transaction transaction = Transaction.openOuter()) {
+            long inserted = storage instanceof PipeItemStorage pipeStorage
+                    ? pipeStorage.insert(stack, speed, transaction)
+                    : storage.insert(ItemVariant.of(stack), stack.getCount(), transaction);
+            if (inserted > 0) {
+                transaction.commit();
+            }
+            return inserted;
+        }
+    }
+
+    @Override
+    public boolean isPipe(BlockPos pos) {
+        return level.getBlockEntity(pos) instanceof PipeBlockEntity;
+    }
+
+    @Override
+    public void dropItem(BlockPos pos, ItemStack stack) {
+        PipeBlockEntity.dropItem(level, pos, stack);
+    }
+}
@@ -0,0 +1,488 @@
+package com.logistics.pipe.runtime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compact storage for the items traveling through a single pipe.
+ *
+ * <p>Item state lives in parallel arrays indexed by slot (id, progress, speed, direction, routed flag and the
+ * slot's stack). Removal swaps the last slot into the freed one, so slot order is not stable and callers
+ * that remove while iterating should walk slots from the end. {@link TravelingItem} is only used as a
+ * detached view at API boundaries (routing, persistence, probing).
+ *
+ * <p>Each item has an id that is unique within the pipe; the server assigns it and clients use it to apply
+ * sync deltas. Stacks are never resized while they are in the buffer.
+ *
+ * <p>Items whose handoff was refused stay in the buffer, stalled at the exit (progress 1.0) until the next pipe
+ * or inventory accepts them. Retries back off per exit side (see {@link #isStallRetryDue}).
+ *
+ * <p>The buffer also keeps a {@link RoutedLedger} of routed amounts per exit side and variant, updated
+ * on every mutation (see {@link #getRoutedAmount}).
+ */
+public final class PipeItemBuffer {
+    /**
+     * Tick event: the item crossed the pipe center unrouted and needs a routing decision.
+     */
+    public static final byte CROSSED_CENTER = 1;
+    /**
+     * Tick event: the item reached the end of the segment.
+     */
+    public static final byte REACHED_END = 2;
+
+    private static final int INITIAL_CAPACITY = 4;
+    // Longest wait between handoff retries of items stalled at an exit
+    private static final int MAX_STALL_BACKOFF_TICKS = 16;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private ItemStack[] stacks = new ItemStack[INITIAL_CAPACITY];
+    private float[] progress = new float[INITIAL_CAPACITY];
+    private float[] speed = new float[INITIAL_CAPACITY];
+    private byte[] direction = new byte[INITIAL_CAPACITY];
+    private boolean[] routed = new boolean[INITIAL_CAPACITY];
+    private boolean[] stalled = new boolean[INITIAL_CAPACITY];
+    // Events from the last advance(), consumed by the main-thread pass (not saved or synced)
+    private byte[] tickEvents = new byte[INITIAL_CAPACITY];
+    private int size = 0;
+    private int stalledCount = 0;
+    // Per exit side: game time of the next handoff retry for stalled items, and the current delay. Allocated on
+    // the first refusal (not saved or synced)
+    private long @Nullable [] stallRetryAt;
+    private int @Nullable [] stallDelay;
+    private int nextId = 0;
+    private final RoutedLedger routedLedger = new RoutedLedger();
+
+    // Set when items are added; lets the coalescing pass skip pipes whose contents only moved
+    private boolean itemsAdded = false;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Append an item. The buffer takes ownership of the stack; callers must pass a stack they no longer use.
+     *
+     * @return the slot index of the new item
+     */
+    public int add(ItemStack stack, Direction travelDirection, float itemSpeed, float itemProgress, boolean isRouted) {
+        return add(nextId++, stack, travelDirection, itemSpeed, itemProgress, isRouted);
+    }
+
+    /**
+     * Append an item with an id assigned elsewhere (loaded from NBT or received from the server).
+     *
+     * @return the slot index of the new item
+     */
+    public int add(
+            int id, ItemStack stack, Direction travelDirection, float itemSpeed, float itemProgress, boolean isRouted) {
+        if (size == stacks.length) {
+            grow();
+        }
+        int index = size++;
+        itemsAdded = true;
+        ids[index] = id;
+        if (id >= nextId) {
+            nextId = id + 1;
+        }
+        stacks[index] = stack;
+        progress[index] = itemProgress;
+        speed[index] = itemSpeed;
+        direction[index] = (byte) travelDirection.get3DDataValue();
+        routed[index] = isRouted;
+        stalled[index] = false;
+        tickEvents[index] = 0;
+        if (isRouted) {
+            trackRouted(index, 1);
+        }
+        return index;
+    }
+
+    /**
+     * Append a copy of the given item's state (the stack is shared, not copied).
+     */
+    public int add(TravelingItem item) {
+        return add(item.getStack(), item.getDirection(), item.getSpeed(), item.getProgress(), item.isRouted());
+    }
+
+    /**
+     * Remove the item at the given slot by moving the last slot into it.
+     */
+    public void removeAt(int index) {
+        if (routed[index]) {
+            trackRouted(index, -1);
+        }
+        removeSlot(index);
+    }
+
+    private void removeSlot(int index) {
+        if (stalled[index]) {
+            stalledCount--;
+        }
+        int last = --size;
+        if (index != last) {
+            ids[index] = ids[last];
+            stacks[index] = stacks[last];
+            progress[index] = progress[last];
+            speed[index] = speed[last];
+            direction[index] = direction[last];
+            routed[index] = routed[last];
+            stalled[index] = stalled[last];
+            tickEvents[index] = tickEvents[last];
+        }
+        stacks[last] = null;
+    }
+
+    public void clear() {
+        Arrays.fill(stacks, 0, size, null);
+        size = 0;
+        stalledCount = 0;
+        routedLedger.clear();
+    }
+
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Find the slot holding the item with the given id.
+     *
+     * @return the slot index, or -1 if no item has that id
+     */
+    public int indexOf(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public ItemStack getStack(int index) {
+        return stacks[index];
+    }
+
+    /**
+     * Replace the slot's stack (e.g. with the remainder of a partial handoff). The buffer takes ownership.
+     */
+    public void setStack(int index, ItemStack stack) {
+        if (routed[index]) {
+            trackRouted(index, -1);
+            stacks[index] = stack;
+            trackRouted(index, 1);
+        } else {
+            stacks[index] = stack;
+        }
+    }
+
+    public float getProgress(int index) {
+        return progress[index];
+    }
+
+    public void setProgress(int index, float value) {
+        progress[index] = value;
+    }
+
+    public float getSpeed(int index) {
+        return speed[index];
+    }
+
+    public void setSpeed(int index, float value) {
+        speed[index] = value;
+    }
+
+    public Direction getDirection(int index) {
+        return Direction.from3DDataValue(direction[index]);
+    }
+
+    public void setDirection(int index, Direction value) {
+        byte side = (byte) value.get3DDataValue();
+        if (routed[index] && direction[index] != side) {
+            trackRouted(index, -1);
+            direction[index] = side;
+            trackRouted(index, 1);
+        } else {
+            direction[index] = side;
+        }
+    }
+
+    public boolean isRouted(int index) {
+        return routed[index];
+    }
+
+    public void setRouted(int index, boolean value) {
+        if (routed[index] != value) {
+            routed[index] = value;
+            trackRouted(index, value ? 1 : -1);
+        }
+    }
+
+    /**
+     * Whether the item is waiting at the exit because the next pipe or inventory refused it.
+     */
+    public boolean isStalled(int index) {
+        return stalled[index];
+    }
+
+    public void setStalled(int index, boolean value) {
+        if (stalled[index] != value) {
+            stalled[index] = value;
+            stalledCount += value ? 1 : -1;
+        }
+    }
+
+    public int getStalledCount() {
+        return stalledCount;
+    }
+
+    /**
+     * Whether stalled items leaving through the given side should retry their handoff at this game time.
+     */
+    public boolean isStallRetryDue(Direction side, long gameTime) {
+        return stallRetryAt == null || gameTime >= stallRetryAt[side.get3DDataValue()];
+    }
+
+    /**
+     * Delay the next handoff retry through the given side after one that moved nothing. The delay doubles with
+     * every failed retry, up to {@code MAX_STALL_BACKOFF_TICKS}.
+     */
+    public void backOffStall(Direction side, long gameTime) {
+        if (stallRetryAt == null || stallDelay == null) {
+            stallRetryAt = new long[6];
+            stallDelay = new int[6];
+        }
+        int index = side.get3DDataValue();
+        stallDelay[index] = Math.min(Math.max(1, stallDelay[index] * 2), MAX_STALL_BACKOFF_TICKS);
+        stallRetryAt[index] = gameTime + stallDelay[index];
+    }
+
+    /**
+     * Retry stalled handoffs through the given side right away, e.g. after the target took items.
+     */
+    public void resetStallBackoff(Direction side) {
+        if (stallRetryAt != null && stallDelay != null) {
+            stallRetryAt[side.get3DDataValue()] = 0;
+            stallDelay[side.get3DDataValue()] = 0;
+        }
+    }
+
+    /**
+     * Total count of routed items of the stack's variant (item and components) headed for the given side.
+     */
+    public long getRoutedAmount(Direction side, ItemStack stack) {
+        return routedLedger.get(side, stack);
+    }
+
+    /**
+     * Whether any routed item is headed for the given side.
+     */
+    public boolean hasRoutedTo(Direction side) {
+        return routedLedger.hasSide(side);
+    }
+
+    /**
+     * Whether items were added since the last call, clearing the flag.
+     */
+    public boolean consumeItemsAdded() {
+        boolean added = itemsAdded;
+        itemsAdded = false;
+        return added;
+    }
+
+    /**
+     * Whether two items can travel as one: same item and components, same direction and routed state,
+     * progress within {@code maxProgressDelta}, and a combined count that fits in one stack.
+     */
+    public boolean canMerge(int first, int second, float maxProgressDelta) {
+        ItemStack a = stacks[first];
+        ItemStack b = stacks[second];
+        return direction[first] == direction[second]
+                && routed[first] == routed[second]
+                && stalled[first] == stalled[second]
+                && Math.abs(progress[first] - progress[second]) <= maxProgressDelta
+                && a.getCount() + b.getCount() <= a.getMaxStackSize()
+                && ItemStack.isSameItemSameComponents(a, b);
+    }
+
+    /**
+     * Merge the item in {@code source} into {@code target}. The merged item keeps the further progress and
+     * higher speed of the two; the source slot is removed (swap-remove).
+     */
+    public void mergeInto(int target, int source) {
+        // Both slots share variant, side and routed state, so the routed ledger total is unchanged
+        stacks[target] = stacks[target].copyWithCount(stacks[target].getCount() + stacks[source].getCount());
+        progress[target] = Math.max(progress[target], progress[source]);
+        speed[target] = Math.max(speed[target], speed[source]);
+        removeSlot(source);
+    }
+
+    /**
+     * Advance the item in the given slot by one tick (see {@link TravelingItem#tick}).
+     *
+     * @return true if the item reached the end of this pipe segment
+     */
+    public boolean tick(int index, float accelerationRate, float dragCoefficient, float maxSpeed) {
+        float newSpeed = TravelingItem.nextSpeed(
+                speed[index], progress[index], accelerationRate, dragCoefficient, maxSpeed);
+        speed[index] = newSpeed;
+        progress[index] += newSpeed;
+        return progress[index] >= 1.0f;
+    }
+
+    /**
+     * Advance the item in the given slot by one tick and record what happened as tick events
+     * ({@link #CROSSED_CENTER}, {@link #REACHED_END}). Only touches the slot's movement state, so buffers of
+     * different pipes can be advanced concurrently.
+     */
+    public void advance(int index, float accelerationRate, float dragCoefficient, float maxSpeed) {
+        float before = progress[index];
+        boolean reachedEnd = tick(index, accelerationRate, dragCoefficient, maxSpeed);
+        byte events = 0;
+        if (before < 0.5f && progress[index] >= 0.5f && !routed[index]) {
+            events |= CROSSED_CENTER;
+        }
+        if (reachedEnd) {
+            events |= REACHED_END;
+        }
+        tickEvents[index] = events;
+    }
+
+    /**
+     * The slot's events from the last {@link #advance}, clearing them.
+     */
+    public byte consumeTickEvents(int index) {
+        byte events = tickEvents[index];
+        tickEvents[index] = 0;
+        return events;
+    }
+
+    /**
+     * Total number of items (sum of stack counts) in the buffer.
+     */
+    public int getTotalCount() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += stacks[i].getCount();
+        }
+        return total;
+    }
+
+    /**
+     * Create a detached TravelingItem holding the slot's state. The stack is shared with the buffer.
+     */
+    public TravelingItem toTravelingItem(int index) {
+        return TravelingItem.restore(stacks[index], getDirection(index), speed[index], progress[index], routed[index]);
+    }
+
+    /**
+     * Point a reusable view at the slot's state instead of allocating a new TravelingItem. The view is only
+     * valid until it is loaded again; it must not be stored.
+     */
+    void loadView(int index, TravelingItem view) {
+        view.load(stacks[index], getDirection(index), speed[index], progress[index], routed[index]);
+    }
+
+    /**
+     * Snapshot of all items as detached TravelingItems (stacks are shared with the buffer).
+     */
+    public List<TravelingItem> toTravelingItems() {
+        List<TravelingItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(toTravelingItem(i));
+        }
+        return items;
+    }
+
+    /**
+     * Write all items to the pipe's saved data. Nothing is written when the buffer is empty.
+     */
+    public void save(CompoundTag pipeData) {
+        if (isEmpty()) {
+            return;
+        }
+
+        ListTag itemsList = new ListTag();
+        int[] itemIds = new int[size];
+        for (int i = 0; i < size; i++) {
+            CompoundTag itemTag = (CompoundTag) TravelingItem.CODEC
+                    .encodeStart(NbtOps.INSTANCE, toTravelingItem(i))
+                    .getOrThrow();
+            itemsList.add(itemTag);
+            itemIds[i] = ids[i];
+        }
+        pipeData.put("TravelingItems", itemsList);
+        pipeData.putIntArray("ItemIds", itemIds);
+        if (getStalledCount() > 0) {
+            int[] stalledIds = new int[getStalledCount()];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (isStalled(i)) {
+                    stalledIds[count++] = ids[i];
+                }
+            }
+            pipeData.putIntArray("StalledItemIds", stalledIds);
+        }
+    }
+
+    /**
+     * Replace the contents with the items in the pipe's saved data (see {@link #save}).
+     */
+    public void load(CompoundTag pipeData) {
+        clear();
+        if (!pipeData.contains("TravelingItems")) {
+            return;
+        }
+
+        int[] itemIds = pipeData.getIntArray("ItemIds").orElse(new int[0]);
+        pipeData.getList("TravelingItems").ifPresent(itemsList -> {
+            boolean hasIds = itemIds.length == itemsList.size();
+            for (int i = 0; i < itemsList.size(); i++) {
+                int index = i;
+                itemsList.getCompound(i)
+                        .flatMap(itemTag -> TravelingItem.CODEC.parse(NbtOps.INSTANCE, itemTag).result())
+                        .ifPresent(item -> {
+                            if (hasIds) {
+                                add(itemIds[index], item.getStack(), item.getDirection(),
+                                        item.getSpeed(), item.getProgress(), item.isRouted());
+                            } else {
+                                add(item);
+                            }
+                        });
+            }
+        });
+
+        // Items waiting at the exit (so clients keep showing them there after a full update)
+        for (int id : pipeData.getIntArray("StalledItemIds").orElse(new int[0])) {
+            int index = indexOf(id);
+            if (index >= 0) {
+                setStalled(index, true);
+            }
+        }
+    }
+
+    private void trackRouted(int index, int sign) {
+        routedLedger.add(direction[index], stacks[index], (long) sign * stacks[index].getCount());
+    }
+
+    private void grow() {
+        int capacity = stacks.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        stacks = Arrays.copyOf(stacks, capacity);
+        progress = Arrays.copyOf(progress, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        routed = Arrays.copyOf(routed, capacity);
+        stalled = Arrays.copyOf(stalled, capacity);
+        tickEvents = Arrays.copyOf(tickEvents, capacity);
+    }
+}
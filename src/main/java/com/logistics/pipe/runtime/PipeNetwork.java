@@ -0,0 +1,338 @@
+package com.logistics.pipe.runtime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * One connected component of pipes and the inventories attached to it.
+ *
+ * <p>Pipes are nodes, pipe-to-pipe connections are edges and every inventory connection a pipe delivers to is
+ * a sink (inventories an extractor pulls from are not). Entering a pipe costs {@code 1 / maxSpeed}, roughly
+ * the ticks a fast item needs to cross it, so paths through faster pipes are preferred.
+ *
+ * <p>{@link PipeNetworkGraph} keeps networks up to date one pipe at a time: it rewrites the row of a pipe
+ * whose connections changed, appends pipes that joined, absorbs networks that were bridged and splits a
+ * network when a removal disconnects it. Routing tables are computed lazily per source pipe (a Dijkstra from
+ * that pipe) and dropped only when a pipe's row actually changes.
+ */
+public final class PipeNetwork {
+    private static final byte NO_HOP = -1;
+    private static final int INITIAL_CAPACITY = 16;
+    // Sinks checked against the caller's filter per query before giving up
+    private static final int MAX_SINK_CHECKS = 16;
+
+    private BlockPos[] pipes = new BlockPos[INITIAL_CAPACITY];
+    private int pipeCount = 0;
+    private final Map<BlockPos, Integer> indexByPos = new HashMap<>();
+    // 6 entries per pipe (by 3D data value): index of the neighboring pipe this pipe sends to, or -1
+    private int[] neighbors = filledRows(INITIAL_CAPACITY);
+    private float[] enterCost = new float[INITIAL_CAPACITY];
+    // Per pipe, a DirectionMask of the sides with a destination inventory
+    private int[] sinkSides = new int[INITIAL_CAPACITY];
+    private int sinkCount = 0;
+
+    private final Map<Integer, RoutingTable> routingTables = new HashMap<>();
+
+    /**
+     * Decides whether a destination inventory can be used, e.g. whether it has space for an item.
+     */
+    @FunctionalInterface
+    public interface SinkFilter {
+        boolean accepts(BlockPos pipe, Direction side);
+    }
+
+    PipeNetwork() {}
+
+    public int getPipeCount() {
+        return pipeCount;
+    }
+
+    /**
+     * Positions of the pipes in this network.
+     */
+    Iterable<BlockPos> getPipes() {
+        return indexByPos.keySet();
+    }
+
+    BlockPos getPipe(int index) {
+        return pipes[index];
+    }
+
+    int indexOf(BlockPos pos) {
+        Integer index = indexByPos.get(pos);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Add a pipe with no connections and return its index.
+     */
+    int add(BlockPos pos) {
+        if (pipeCount == pipes.length) {
+            int capacity = pipes.length * 2;
+            pipes = Arrays.copyOf(pipes, capacity);
+            enterCost = Arrays.copyOf(enterCost, capacity);
+            sinkSides = Arrays.copyOf(sinkSides, capacity);
+            int[] grown = filledRows(capacity);
+            System.arraycopy(neighbors, 0, grown, 0, neighbors.length);
+            neighbors = grown;
+        }
+        int index = pipeCount++;
+        pipes[index] = pos;
+        enterCost[index] = 1.0f;
+        sinkSides[index] = DirectionMask.NONE;
+        indexByPos.put(pos, index);
+        routingTables.clear();
+        return index;
+    }
+
+    /**
+     * Replace a pipe's cost, sinks and outgoing edges ({@code row}: neighbor index per side, or -1).
+     * Routing tables are kept if nothing changed.
+     *
+     * @return true if an edge was removed, so the network may have come apart
+     */
+    boolean update(int index, float cost, int sinkMask, int[] row) {
+        boolean changed = enterCost[index] != cost || sinkSides[index] != sinkMask;
+        boolean edgeRemoved = false;
+        for (int side = 0; side < 6; side++) {
+            int old = neighbors[index * 6 + side];
+            if (old != row[side]) {
+                changed = true;
+                edgeRemoved |= old >= 0;
+                neighbors[index * 6 + side] = row[side];
+            }
+        }
+        if (changed) {
+            sinkCount += Integer.bitCount(sinkMask) - Integer.bitCount(sinkSides[index]);
+            enterCost[index] = cost;
+            sinkSides[index] = sinkMask;
+            routingTables.clear();
+        }
+        return edgeRemoved;
+    }
+
+    /**
+     * Remove a pipe, moving the last pipe into its slot. Edges only join adjacent blocks, so the references to
+     * fix up are found by position.
+     */
+    void remove(int index) {
+        BlockPos removed = pipes[index];
+        for (int side = 0; side < 6; side++) {
+            int neighbor = indexOf(removed.relative(Direction.from3DDataValue(side)));
+            int back = neighbor * 6 + opposite(side);
+            if (neighbor >= 0 && neighbors[back] == index) {
+                neighbors[back] = -1;
+            }
+        }
+        sinkCount -= Integer.bitCount(sinkSides[index]);
+        indexByPos.remove(removed);
+
+        int last = --pipeCount;
+        if (index != last) {
+            BlockPos moved = pipes[last];
+            pipes[index] = moved;
+            enterCost[index] = enterCost[last];
+            sinkSides[index] = sinkSides[last];
+            System.arraycopy(neighbors, last * 6, neighbors, index * 6, 6);
+            indexByPos.put(moved, index);
+            for (int side = 0; side < 6; side++) {
+                int neighbor = indexOf(moved.relative(Direction.from3DDataValue(side)));
+                int back = neighbor * 6 + opposite(side);
+                if (neighbor >= 0 && neighbors[back] == last) {
+                    neighbors[back] = index;
+                }
+            }
+        }
+        pipes[last] = null;
+        Arrays.fill(neighbors, last * 6, last * 6 + 6, -1);
+        routingTables.clear();
+    }
+
+    /**
+     * Append every pipe of another network, keeping its edges.
+     */
+    void absorb(PipeNetwork other) {
+        int offset = pipeCount;
+        for (int i = 0; i < other.pipeCount; i++) {
+            add(other.pipes[i]);
+        }
+        for (int i = 0; i < other.pipeCount; i++) {
+            int[] row = new int[6];
+            for (int side = 0; side < 6; side++) {
+                int neighbor = other.neighbors[i * 6 + side];
+                row[side] = neighbor < 0 ? -1 : offset + neighbor;
+            }
+            update(offset + i, other.enterCost[i], other.sinkSides[i], row);
+        }
+    }
+
+    /**
+     * The connected parts of this network, counting an edge in either direction. Returns only this network
+     * if it is still in one piece.
+     */
+    List<PipeNetwork> split() {
+        int[] component = new int[pipeCount];
+        Arrays.fill(component, -1);
+        int[] stack = new int[pipeCount];
+        int components = 0;
+        for (int start = 0; start < pipeCount; start++) {
+            if (component[start] >= 0) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = start;
+            component[start] = components;
+            while (top > 0) {
+                int node = stack[--top];
+                for (int side = 0; side < 6; side++) {
+                    int next = neighbors[node * 6 + side];
+                    if (next < 0) {
+                        // An edge pointing at this pipe still holds the two together
+                        int other = indexOf(pipes[node].relative(Direction.from3DDataValue(side)));
+                        next = other >= 0 && neighbors[other * 6 + opposite(side)] == node ? other : -1;
+                    }
+                    if (next >= 0 && component[next] < 0) {
+                        component[next] = components;
+                        stack[top++] = next;
+                    }
+                }
+            }
+            components++;
+        }
+        if (components <= 1) {
+            return List.of(this);
+        }
+
+        List<PipeNetwork> parts = new ArrayList<>(components);
+        int[] localIndex = new int[pipeCount];
+        for (int c = 0; c < components; c++) {
+            parts.add(new PipeNetwork());
+        }
+        for (int i = 0; i < pipeCount; i++) {
+            localIndex[i] = parts.get(component[i]).add(pipes[i]);
+        }
+        for (int i = 0; i < pipeCount; i++) {
+            int[] row = new int[6];
+            for (int side = 0; side < 6; side++) {
+                int neighbor = neighbors[i * 6 + side];
+                row[side] = neighbor < 0 ? -1 : localIndex[neighbor];
+            }
+            parts.get(component[i]).update(localIndex[i], enterCost[i], sinkSides[i], row);
+        }
+        return parts;
+    }
+
+    /**
+     * Next hop from the given pipe toward the cheapest reachable inventory that is not attached to the pipe
+     * itself and that {@code filter} accepts, limited to first hops in {@code allowedMask} (a
+     * {@link DirectionMask}). Sinks are tried in order of path cost, at most {@code MAX_SINK_CHECKS} of them.
+     *
+     * @return the direction to send the item, or null if no such inventory is reachable
+     */
+    @Nullable public Direction nextHopToNearestRemoteSink(BlockPos from, int allowedMask, SinkFilter filter) {
+        Integer source = indexByPos.get(from);
+        if (source == null) {
+            return null;
+        }
+
+        RoutingTable table = getRoutingTable(source);
+        int checked = 0;
+        for (long entry : table.sinksByCost()) {
+            int sink = (int) entry;
+            int pipe = sink / 6;
+            byte hop = table.firstHop()[pipe];
+            if ((allowedMask & (1 << hop)) == 0) {
+                continue;
+            }
+            if (filter.accepts(pipes[pipe], Direction.from3DDataValue(sink % 6))) {
+                return Direction.from3DDataValue(hop);
+            }
+            if (++checked >= MAX_SINK_CHECKS) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    private RoutingTable getRoutingTable(int source) {
+        RoutingTable table = routingTables.get(source);
+        if (table == null) {
+            table = computeRoutingTable(source);
+            routingTables.put(source, table);
+        }
+        return table;
+    }
+
+    /**
+     * Dijkstra from the source pipe, remembering for every pipe which of the source's sides the cheapest path
+     * leaves through, then list the reachable sinks of other pipes by path cost.
+     */
+    private RoutingTable computeRoutingTable(int source) {
+        int count = pipeCount;
+        float[] cost = new float[count];
+        byte[] firstHop = new byte[count];
+        Arrays.fill(cost, Float.POSITIVE_INFINITY);
+        Arrays.fill(firstHop, NO_HOP);
+        cost[source] = 0.0f;
+
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        queue.add(new long[] {Float.floatToIntBits(0.0f), source});
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int node = (int) entry[1];
+            // Costs are non-negative, so their int bits order the same way as the floats
+            if (Float.intBitsToFloat((int) entry[0]) > cost[node]) {
+                continue;
+            }
+
+            for (int side = 0; side < 6; side++) {
+                int next = neighbors[node * 6 + side];
+                if (next < 0) {
+                    continue;
+                }
+                float nextCost = cost[node] + enterCost[next];
+                if (nextCost < cost[next]) {
+                    cost[next] = nextCost;
+                    firstHop[next] = node == source ? (byte) side : firstHop[node];
+                    queue.add(new long[] {Float.floatToIntBits(nextCost), next});
+                }
+            }
+        }
+
+        // Cost bits in the high half, pipe * 6 + side in the low half, so sorting orders by cost
+        long[] sinks = new long[sinkCount];
+        int size = 0;
+        for (int pipe = 0; pipe < count; pipe++) {
+            if (pipe == source || firstHop[pipe] == NO_HOP || sinkSides[pipe] == DirectionMask.NONE) {
+                continue;
+            }
+            for (int side = 0; side < 6; side++) {
+                if ((sinkSides[pipe] & (1 << side)) != 0) {
+                    sinks[size++] = ((long) Float.floatToIntBits(cost[pipe]) << 32) | (pipe * 6 + side);
+                }
+            }
+        }
+        long[] sinksByCost = Arrays.copyOf(sinks, size);
+        Arrays.sort(sinksByCost);
+        return new RoutingTable(firstHop, sinksByCost);
+    }
+
+    private static int opposite(int side) {
+        return Direction.from3DDataValue(side).getOpposite().get3DDataValue();
+    }
+
+    private static int[] filledRows(int capacity) {
+        int[] rows = new int[capacity * 6];
+        Arrays.fill(rows, -1);
+        return rows;
+    }
+
+    private record RoutingTable(byte[] firstHop, long[] sinksByCost) {}
+}
@@ -0,0 +1,218 @@
+package com.logistics.pipe.runtime;
+
+import com.logistics.core.lib.pipe.PipeConnection;
+import com.logistics.pipe.Pipe;
+import com.logistics.pipe.PipeContext;
+import com.logistics.pipe.block.PipeBlock;
+import com.logistics.pipe.block.entity.PipeBlockEntity;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Connected pipe networks of one level, discovered on demand (see {@link PipeNetwork}).
+ *
+ * <p>A pipe whose connections change (placed, broken, neighbor or module change, chunk unload) is only
+ * marked; the next query re-reads the marked pipes and patches their networks in place. A pipe that reads
+ * the same as before costs nothing more, a new pipe is appended (absorbing any network it bridges into) and a
+ * lost connection triggers a connectivity check on the in-memory graph, so placing or breaking one pipe never
+ * re-walks a large mesh in the world.
+ */
+public final class PipeNetworkGraph {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final ServerLevel level;
+    private final Map<BlockPos, PipeNetwork> networkByPos = new HashMap<>();
+    // Pipes whose connections changed since the last query
+    private final Set<BlockPos> dirty = new LinkedHashSet<>();
+    private int networkCount = 0;
+
+    PipeNetworkGraph(ServerLevel level) {
+        this.level = level;
+    }
+
+    /**
+     * The network containing the given pipe, built now if it is not known yet.
+     */
+    public PipeNetwork getNetwork(PipeBlockEntity pipe) {
+        applyUpdates();
+        PipeNetwork network = networkByPos.get(pipe.getBlockPos());
+        if (network == null) {
+            network = new PipeNetwork();
+            network.add(pipe.getBlockPos());
+            networkByPos.put(pipe.getBlockPos(), network);
+            networkCount++;
+            Deque<PipeBlockEntity> pending = new ArrayDeque<>();
+            pending.add(pipe);
+            drain(pending);
+        }
+        return network;
+    }
+
+    /**
+     * Mark the pipe at the given position for re-reading, if it belongs to a known network.
+     */
+    public void invalidate(BlockPos pos) {
+        if (networkByPos.containsKey(pos)) {
+            dirty.add(pos.immutable());
+        }
+    }
+
+    /**
+     * Number of networks currently built.
+     */
+    public int getNetworkCount() {
+        applyUpdates();
+        return networkCount;
+    }
+
+    private void applyUpdates() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<BlockPos> positions = new ArrayList<>(dirty);
+        dirty.clear();
+
+        Set<PipeNetwork> mayHaveSplit = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<PipeBlockEntity> pending = new ArrayDeque<>();
+        for (BlockPos pos : positions) {
+            PipeNetwork network = networkByPos.get(pos);
+            if (network == null) {
+                continue;
+            }
+            PipeBlockEntity pipe = getLoadedPipe(pos);
+            if (pipe == null) {
+                network.remove(network.indexOf(pos));
+                networkByPos.remove(pos);
+                if (network.getPipeCount() == 0) {
+                    networkCount--;
+                } else {
+                    mayHaveSplit.add(network);
+                }
+                continue;
+            }
+            pending.add(pipe);
+            mayHaveSplit.addAll(drain(pending));
+        }
+
+        Set<PipeNetwork> live = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PipeNetwork network : mayHaveSplit) {
+            // A network absorbed by another still lists its former pipes, which lead to the absorbing one
+            PipeNetwork current = network.getPipeCount() == 0 ? null : networkByPos.get(network.getPipe(0));
+            if (current != null) {
+                live.add(current);
+            }
+        }
+        for (PipeNetwork network : live) {
+            List<PipeNetwork> parts = network.split();
+            if (parts.size() > 1) {
+                for (PipeNetwork part : parts) {
+                    for (BlockPos member : part.getPipes()) {
+                        networkByPos.put(member, part);
+                    }
+                }
+                networkCount += parts.size() - 1;
+            }
+        }
+    }
+
+    /**
+     * Re-read the pending pipes, and any pipes they newly connect to.
+     *
+     * @return networks that lost an edge
+     */
+    private List<PipeNetwork> drain(Deque<PipeBlockEntity> pending) {
+        List<PipeNetwork> lostEdges = new ArrayList<>();
+        while (!pending.isEmpty()) {
+            PipeBlockEntity pipe = pending.poll();
+            // Looked up each time because an earlier pipe may have merged its network into another
+            PipeNetwork network = networkByPos.get(pipe.getBlockPos());
+            if (network != null && read(network, pipe, pending)) {
+                lostEdges.add(network);
+            }
+        }
+        return lostEdges;
+    }
+
+    /**
+     * Read one pipe's cost, sinks and connections from the world into its network row.
+     *
+     * @return true if the pipe lost an outgoing edge
+     */
+    private boolean read(PipeNetwork network, PipeBlockEntity pipe, Deque<PipeBlockEntity> pending) {
+        PipeContext ctx = pipe.createContext();
+        Pipe logic = pipe.getBlockState().getBlock() instanceof PipeBlock pipeBlock ? pipeBlock.getPipe() : null;
+        float cost = logic != null ? 1.0f / Math.max(logic.getMaxSpeed(ctx), 0.001f) : 1.0f;
+        int sinkMask = DirectionMask.NONE;
+        int[] row = {-1, -1, -1, -1, -1, -1};
+
+        for (Direction direction : DIRECTIONS) {
+            PipeConnection.Type type = ctx.getConnectionType(direction);
+            if (type == PipeConnection.Type.INVENTORY) {
+                if (logic == null || !logic.isExtractionSource(ctx, direction)) {
+                    sinkMask |= DirectionMask.bit(direction);
+                }
+                continue;
+            }
+
+            PipeBlockEntity neighbor = getLoadedPipe(pipe.getBlockPos().relative(direction));
+            if (neighbor == null) {
+                continue;
+            }
+            boolean outgoing = type == PipeConnection.Type.PIPE;
+            // A one-way connection into this pipe still makes the neighbor part of the same network
+            if (outgoing
+                    || neighbor.createContext().getConnectionType(direction.getOpposite())
+                            == PipeConnection.Type.PIPE) {
+                int neighborIndex = join(network, neighbor, pending);
+                if (outgoing) {
+                    row[direction.get3DDataValue()] = neighborIndex;
+                }
+            }
+        }
+        return network.update(network.indexOf(pipe.getBlockPos()), cost, sinkMask, row);
+    }
+
+    /**
+     * Make sure a connected neighbor is in the network, absorbing the network it belongs to or queueing it
+     * for reading, and return its index.
+     */
+    private int join(PipeNetwork network, PipeBlockEntity neighbor, Deque<PipeBlockEntity> pending) {
+        BlockPos pos = neighbor.getBlockPos();
+        int index = network.indexOf(pos);
+        if (index >= 0) {
+            return index;
+        }
+        PipeNetwork other = networkByPos.get(pos);
+        if (other != null) {
+            network.absorb(other);
+            for (BlockPos member : other.getPipes()) {
+                networkByPos.put(member, network);
+            }
+            networkCount--;
+            return network.indexOf(pos);
+        }
+        index = network.add(pos);
+        networkByPos.put(pos, network);
+        pending.add(neighbor);
+        return index;
+    }
+
+    private @Nullable PipeBlockEntity getLoadedPipe(BlockPos pos) {
+        if (level.isLoaded(pos) && level.getBlockEntity(pos) instanceof PipeBlockEntity pipe && !pipe.isRemoved()) {
+            return pipe;
+        }
+        return null;
+    }
+}
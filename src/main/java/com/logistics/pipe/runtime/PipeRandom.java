@@ -0,0 +1,54 @@
+package com.logistics.pipe.runtime;
+
+import java.util.List;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.Level;
+
+/**
+ * Stateless deterministic randomness for routing.
+ *
+ * <p>Client and server must make the same routing choices, so random picks are derived from a hash of
+ * position, game time and the item's direction instead of a seeded {@link java.util.Random}.
+ */
+public final class PipeRandom {
+    private PipeRandom() {}
+
+    /**
+     * Pick one of the options for an item at the given pipe.
+     */
+    public static Direction chooseDirection(
+            Level world, BlockPos pos, Direction currentDirection, List<Direction> options) {
+        return chooseDirection(world.getGameTime(), pos, currentDirection, options);
+    }
+
+    /**
+     * Pick one of the options for an item at the given pipe and game time.
+     */
+    public static Direction chooseDirection(
+            long gameTime, BlockPos pos, Direction currentDirection, List<Direction> options) {
+        long seed = mixHash(pos.asLong(), gameTime, currentDirection.get3DDataValue());
+        return options.get(nextIndex(seed, options.size()));
+    }
+
+    /**
+     * Map a hash to an index in {@code [0, bound)} using its high 32 bits.
+     */
+    public static int nextIndex(long hash, int bound) {
+        return (int) (((hash >>> 32) * bound) >>> 32);
+    }
+
+    public static long mixHash(long a, long b, long c) {
+        long hash = a;
+        hash = hash * 31 + b;
+        hash = hash * 31 + c;
+
+        hash ^= (hash >>> 33);
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= (hash >>> 33);
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= (hash >>> 33);
+
+        return hash;
+    }
+}
@@ -1,20 +1,22 @@
 package com.logistics.pipe.runtime;
 
 import com.logistics.LogisticsPipe;
+import com.logistics.core.lib.jfr.PipeHandoffEvent;
+import com.logistics.core.lib.jfr.PipeTickEvent;
 import com.logistics.core.lib.pipe.PipeConnection;
+import com.logistics.core.lib.support.TickProfiler;
 import com.logistics.pipe.Pipe;
 import com.logistics.pipe.PipeContext;
 import com.logistics.pipe.block.PipeBlock;
 import com.logistics.pipe.block.entity.PipeBlockEntity;
-import com.logistics.pipe.block.entity.PipeItemStorage;
-import java.util.ArrayList;
+import com.logistics.pipe.network.PipeSyncPayload;
 import java.util.List;
-import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
-import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
-import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
-import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import java.util.Locale;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.BlockState;
 import org.jetbrains.annotations.Nullable;
@@ -22,37 +24,107 @@ import org.jetbrains.annotations.Nullable;
 public final class PipeRuntime {
     private PipeRuntime() {}
 
+    // Direction.values() clones its array on every call
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // Per-thread scratch state reused by every tick (the client and integrated server tick on separate threads)
+    private static final ThreadLocal<TickContext> SCRATCH = ThreadLocal.withInitial(TickContext::new);
+
     /**
      * Holds pipe configuration and context for the current tick.
+     * A single instance per thread is reloaded for every pipe so the tick path does not allocate.
      */
-    private record TickContext(
-            Level world,
-            BlockPos pos,
-            BlockState state,
-            PipeBlockEntity blockEntity,
-            @Nullable Pipe pipe,
-            @Nullable PipeContext pipeContext,
-            float maxSpeed,
-            float accelerationRate,
-            float dragCoefficient) {
-
-        static TickContext create(Level world, BlockPos pos, BlockState state, PipeBlockEntity blockEntity) {
-            float maxSpeed = LogisticsPipe.CONFIG.PIPE_MAX_SPEED;
-            float accelerationRate = 0f;
-            float dragCoefficient = LogisticsPipe.CONFIG.DRAG_COEFFICIENT;
-            Pipe pipe = null;
-            PipeContext pipeContext = null;
+    private static final class TickContext {
+        // The loaded pipe as seen by the item processing shared with headless simulators
+        final BlockEntityPipe transportPipe = new BlockEntityPipe(this);
+
+        // Reusable routing view handed to modules; only valid for the duration of one route call
+        final TravelingItem routingView = TravelingItem.createView();
+
+        private Level world;
+        private BlockPos pos;
+        private BlockState state;
+        private PipeBlockEntity blockEntity;
+        private @Nullable Pipe pipe;
+        private @Nullable PipeContext pipeContext;
+        private @Nullable PipeScheduler scheduler;
+        private float maxSpeed;
+        private float accelerationRate;
+        private float dragCoefficient;
+
+        void load(Level world, BlockPos pos, BlockState state, PipeBlockEntity blockEntity) {
+            this.world = world;
+            this.pos = pos;
+            this.state = state;
+            this.blockEntity = blockEntity;
+            this.pipe = null;
+            this.pipeContext = null;
+            this.scheduler = world instanceof ServerLevel serverLevel ? PipeScheduler.get(serverLevel) : null;
+            this.maxSpeed = LogisticsPipe.CONFIG.PIPE_MAX_SPEED;
+            this.accelerationRate = 0f;
+            this.dragCoefficient = LogisticsPipe.CONFIG.DRAG_COEFFICIENT;
 
             if (state.getBlock() instanceof PipeBlock pipeBlock && pipeBlock.getPipe() != null) {
                 pipe = pipeBlock.getPipe();
-                pipeContext = new PipeContext(world, pos, state, blockEntity);
+                pipeContext = blockEntity.createContext();
                 maxSpeed = pipe.getMaxSpeed(pipeContext);
                 accelerationRate = pipe.getAccelerationRate(pipeContext);
                 dragCoefficient = pipe.getDrag(pipeContext);
             }
+        }
+
+        /**
+         * Drop references to the level and block entity so the thread-local does not keep them alive.
+         */
+        void clear() {
+            world = null;
+            pos = null;
+            state = null;
+            blockEntity = null;
+            pipe = null;
+            pipeContext = null;
+            scheduler = null;
+            routingView.load(null, Direction.DOWN, 0.0f, 0.0f, false);
+        }
+
+        Level world() {
+            return world;
+        }
+
+        BlockPos pos() {
+            return pos;
+        }
+
+        BlockState state() {
+            return state;
+        }
+
+        PipeBlockEntity blockEntity() {
+            return blockEntity;
+        }
+
+        @Nullable PipeScheduler scheduler() {
+            return scheduler;
+        }
+
+        @Nullable Pipe pipe() {
+            return pipe;
+        }
+
+        @Nullable PipeContext pipeContext() {
+            return pipeContext;
+        }
+
+        float maxSpeed() {
+            return maxSpeed;
+        }
 
-            return new TickContext(
-                    world, pos, state, blockEntity, pipe, pipeContext, maxSpeed, accelerationRate, dragCoefficient);
+        float accelerationRate() {
+            return accelerationRate;
+        }
+
+        float dragCoefficient() {
+            return dragCoefficient;
         }
 
         boolean hasPipe() {
@@ -69,39 +141,51 @@ public final class PipeRuntime {
     }
 
     /**
-     * Tracks items to add/remove during tick processing.
+     * The pipe loaded into a {@link TickContext}, as seen by {@link #processItems}.
      */
-    private static final class ItemTickState {
-        final List<TravelingItem> toRoute = new ArrayList<>();
-        final List<TravelingItem> toRemove = new ArrayList<>();
-        final List<TravelingItem> toDiscard = new ArrayList<>();
-        final List<TravelingItem> toReplace = new ArrayList<>();
-        final List<TravelingItem> toAdd = new ArrayList<>();
-        boolean needsSync = false;
+    private static final class BlockEntityPipe implements TransportPipe {
+        private final TickContext ctx;
+
+        BlockEntityPipe(TickContext ctx) {
+            this.ctx = ctx;
+        }
 
-        void markForRouting(TravelingItem item) {
-            toRoute.add(item);
+        @Override
+        public BlockPos getBlockPos() {
+            return ctx.pos();
         }
 
-        void markForRemoval(TravelingItem item) {
-            toRemove.add(item);
+        @Override
+        public PipeItemBuffer getItemBuffer() {
+            return ctx.blockEntity().getItemBuffer();
         }
 
-        void markForDiscard(TravelingItem item) {
-            toDiscard.add(item);
-            toRoute.remove(item);
-            needsSync = true;
+        @Override
+        public int getConnectionMask() {
+            return PipeRuntime.getConnectionMask(ctx);
         }
 
-        void markForReplacement(TravelingItem item, List<TravelingItem> replacements) {
-            toReplace.add(item);
-            toRoute.remove(item);
-            toAdd.addAll(replacements);
-            needsSync = true;
+        @Override
+        public RoutePlan route(TravelingItem item, int validMask) {
+            if (!ctx.hasPipe()) {
+                return RoutePlan.pass();
+            }
+            return ctx.pipe().route(ctx.pipeContext(), item, DirectionMask.toList(validMask));
         }
 
-        void markNeedsSync() {
-            needsSync = true;
+        @Override
+        public void deferHandoff(int itemId) {
+            ctx.scheduler().deferTransfer(ctx.blockEntity(), itemId);
+        }
+
+        @Override
+        public void queueItemSync(PipeSyncPayload.Op op) {
+            ctx.blockEntity().queueItemSync(op);
+        }
+
+        @Override
+        public void onRouted(Direction side) {
+            trackInventoryFeed(ctx, side);
         }
     }
 
@@ -114,108 +198,299 @@ public final class PipeRuntime {
      * adjacent inventories or pipes happens when items reach progress 1.0.
      */
     public static void tick(Level world, BlockPos pos, BlockState state, PipeBlockEntity blockEntity) {
-        TickContext ctx = TickContext.create(world, pos, state, blockEntity);
-        ItemTickState itemState = new ItemTickState();
+        long start = TickProfiler.begin(world);
+        PipeTickEvent event = new PipeTickEvent();
+        event.begin();
+        TickContext ctx = SCRATCH.get();
+        ctx.load(world, pos, state, blockEntity);
+        try {
+            tickModules(ctx);
+            advanceItems(blockEntity.getItemBuffer(), ctx.accelerationRate(), ctx.dragCoefficient(), ctx.maxSpeed());
+            finishTick(ctx);
+            recordTick(ctx, start, true);
+            commitTickEvent(ctx, event, "full");
+        } finally {
+            ctx.clear();
+        }
+    }
+
+    /**
+     * Scheduler phase 1a (server thread): refresh connections and run module ticks, then store the pipe's
+     * acceleration, drag and max speed at {@code motion[offset..offset + 2]} for {@link #advanceItems}.
+     */
+    static void tickModules(ServerLevel level, PipeBlockEntity blockEntity, float[] motion, int offset) {
+        long start = TickProfiler.begin(level);
+        PipeTickEvent event = new PipeTickEvent();
+        event.begin();
+        TickContext ctx = SCRATCH.get();
+        ctx.load(level, blockEntity.getBlockPos(), blockEntity.getBlockState(), blockEntity);
+        try {
+            motion[offset] = ctx.accelerationRate();
+            motion[offset + 1] = ctx.dragCoefficient();
+            motion[offset + 2] = ctx.maxSpeed();
+            tickModules(ctx);
+            recordTick(ctx, start, true);
+            commitTickEvent(ctx, event, "modules");
+        } finally {
+            ctx.clear();
+        }
+    }
+
+    /**
+     * Scheduler phase 1c (server thread): act on the tick events recorded by {@link #advanceItems}.
+     */
+    static void finishTick(ServerLevel level, PipeBlockEntity blockEntity) {
+        long start = TickProfiler.begin(level);
+        PipeTickEvent event = new PipeTickEvent();
+        event.begin();
+        TickContext ctx = SCRATCH.get();
+        ctx.load(level, blockEntity.getBlockPos(), blockEntity.getBlockState(), blockEntity);
+        try {
+            finishTick(ctx);
+            recordTick(ctx, start, false);
+            commitTickEvent(ctx, event, "items");
+        } finally {
+            ctx.clear();
+        }
+    }
 
-        // Update connection cache and notify modules of topology changes
+    /**
+     * Add this pipe's time to the tick profiler; the scheduler's two phases count as one tick.
+     */
+    private static void recordTick(TickContext ctx, long start, boolean countCall) {
+        if (start != 0L) {
+            String category = ctx.hasPipe() ? ctx.pipe().getPipeName() : "pipe";
+            TickProfiler.recordBlock(ctx.world(), ctx.pos(), category, start, countCall);
+        }
+    }
+
+    private static void commitTickEvent(TickContext ctx, PipeTickEvent event, String phase) {
+        event.end();
+        if (ctx.isServer() && event.shouldCommit()) {
+            event.setLocation(ctx.world(), ctx.pos());
+            event.pipe = ctx.hasPipe() ? ctx.pipe().getPipeName() : "";
+            event.phase = phase;
+            event.itemCount = ctx.blockEntity().getItemBuffer().size();
+            event.commit();
+        }
+    }
+
+    private static void tickModules(TickContext ctx) {
+        // Refresh connection cache (only after neighbor/module changes) and notify modules of topology changes
         if (ctx.hasPipe()) {
-            updateConnectionCache(ctx);
-            if (handleConnectionChanges(ctx)) {
-                itemState.markNeedsSync();
+            if (ctx.blockEntity().isConnectionCacheDirty()) {
+                updateConnectionCache(ctx);
+                handleConnectionChanges(ctx);
             }
             ctx.pipe().onTick(ctx.pipeContext());
         }
+    }
 
-        // Process all traveling items
-        processItems(ctx, itemState);
+    /**
+     * Advance every moving item of one pipe and record center crossings and segment ends as tick events
+     * (see {@link PipeItemBuffer#advance}). Pure movement: touches nothing but the buffer, so the scheduler may
+     * run it for many pipes in parallel. Stalled items do not move.
+     */
+    public static void advanceItems(
+            PipeItemBuffer items, float accelerationRate, float dragCoefficient, float maxSpeed) {
+        for (int i = 0; i < items.size(); i++) {
+            if (!items.isStalled(i)) {
+                items.advance(i, accelerationRate, dragCoefficient, maxSpeed);
+            }
+        }
+    }
 
-        // Apply item list changes
-        applyItemChanges(ctx, itemState);
+    private static void finishTick(TickContext ctx) {
+        if (ctx.isServer()) {
+            // Route, queue and remove items based on this tick's movement, then merge identical items that
+            // entered close together (clients apply both through sync ops)
+            boolean changed = processItems(ctx.scheduler().getWorld(), ctx.transportPipe);
+            changed |= coalesceItems(ctx);
+
+            // Persist item changes (coalesced with other changes into the end-of-tick flush)
+            if (changed) {
+                ctx.blockEntity().queueSave();
+            }
+        } else {
+            predictItems(ctx);
+        }
 
-        // Sync to clients if needed
-        syncIfNeeded(ctx, itemState);
+        // Idle pipes stop ticking until an insert, neighbor change or sync wakes them
+        updateDormancy(ctx);
+    }
 
-        // Route completed items (server only)
-        transferCompletedItems(ctx, itemState);
+    private static void updateDormancy(TickContext ctx) {
+        PipeBlockEntity blockEntity = ctx.blockEntity();
+        if (!ctx.hasPipe() || ctx.pipe().hasTicks()) {
+            return;
+        }
+        if (!blockEntity.getItemBuffer().isEmpty() || blockEntity.isConnectionCacheDirty()) {
+            return;
+        }
+        blockEntity.enterDormancy();
     }
 
     private static void updateConnectionCache(TickContext ctx) {
         if (ctx.state().getBlock() instanceof PipeBlock pipeBlock) {
-            for (Direction direction : Direction.values()) {
+            PipeBlockEntity blockEntity = ctx.blockEntity();
+            int previousTypes = blockEntity.getPackedConnectionTypes();
+            for (Direction direction : DIRECTIONS) {
                 PipeConnection.Type type = pipeBlock.getDynamicConnectionType(ctx.world(), ctx.pos(), direction);
-                ctx.blockEntity().setConnectionType(direction, type);
+                blockEntity.setConnectionType(direction, type);
+            }
+            blockEntity.markConnectionCacheClean();
+
+            if (ctx.isServer() && blockEntity.getPackedConnectionTypes() != previousTypes) {
+                blockEntity.queueConnectionSync();
             }
         }
     }
 
-    private static boolean handleConnectionChanges(TickContext ctx) {
-        List<Direction> connected = getAllConnectedDirections(ctx.world(), ctx.pos(), ctx.state());
-        int mask = 0;
-        for (Direction d : connected) {
-            mask |= (1 << d.get3DDataValue());
-        }
+    private static void handleConnectionChanges(TickContext ctx) {
+        int mask = ctx.blockEntity().getConnectionMask();
 
         if (mask != ctx.blockEntity().getLastConnectionsMask()) {
             ctx.blockEntity().setLastConnectionsMask(mask);
-            ctx.pipe().onConnectionsChanged(ctx.pipeContext(), connected);
-            return ctx.isServer();
+            ctx.pipe().onConnectionsChanged(ctx.pipeContext(), DirectionMask.toList(mask));
         }
-        return false;
     }
 
-    private static void processItems(TickContext ctx, ItemTickState itemState) {
-        for (TravelingItem item : ctx.blockEntity().getTravelingItems()) {
-            processItem(ctx, item, itemState);
-        }
-    }
+    /**
+     * Handle the tick events of every item in a server pipe's buffer (scheduler phase 1c, or the same step of a
+     * headless simulator).
+     *
+     * <p>Slots are walked from the end: removal swaps the last slot into the freed one, so the moved item
+     * has either been processed already or was added during this pass (split results, without events), which
+     * should wait until the next tick. Items that reach the end are held at progress 1.0 and queued for handoff
+     * (they leave the buffer once the target accepts them, see {@link #completeHandoff}).
+     *
+     * @return true if items were routed, removed or replaced, so the pipe needs saving
+     */
+    public static boolean processItems(PipeWorld world, TransportPipe pipe) {
+        PipeItemBuffer items = pipe.getItemBuffer();
+        TravelingItem view = SCRATCH.get().routingView;
+        boolean changed = false;
+        // Exits (DirectionMask) that already queued a stalled item's handoff retry this tick
+        int retriedExits = DirectionMask.NONE;
+
+        for (int i = items.size() - 1; i >= 0; i--) {
+            if (items.isStalled(i)) {
+                // Waiting at the exit for the target to accept it. One stalled item per exit is retried, once
+                // that exit's back-off is due: if it is refused, the others would be too
+                Direction exit = items.getDirection(i);
+                int bit = DirectionMask.bit(exit);
+                if ((retriedExits & bit) == 0 && items.isStallRetryDue(exit, world.getGameTime())) {
+                    retriedExits |= bit;
+                    pipe.deferHandoff(items.getId(i));
+                }
+                continue;
+            }
 
-    private static void processItem(TickContext ctx, TravelingItem item, ItemTickState itemState) {
-        float progressBefore = item.getProgress();
+            byte events = items.consumeTickEvents(i);
 
-        // Advance item progress
-        if (item.tick(ctx.accelerationRate(), ctx.dragCoefficient(), ctx.maxSpeed())) {
-            itemState.markForRouting(item);
-        }
+            // Handle routing decision at pipe center
+            if ((events & PipeItemBuffer.CROSSED_CENTER) != 0) {
+                changed = true;
+                items.loadView(i, view);
+                RoutePlan plan = resolveRoutePlan(pipe, view);
+                if (!executeRoutePlan(world, pipe, items, i, view, plan)) {
+                    continue; // dropped, discarded or replaced by split results
+                }
+            }
 
-        // Handle routing decision at pipe center
-        if (progressBefore < 0.5f && item.getProgress() >= 0.5f && !item.isRouted()) {
-            routeItem(ctx, item, itemState);
+            if ((events & PipeItemBuffer.REACHED_END) != 0) {
+                // Handoffs run after every pipe has processed its items; the item stays here at the exit until
+                // then
+                items.setProgress(i, 1.0f);
+                pipe.deferHandoff(items.getId(i));
+            }
         }
+        return changed;
+    }
 
-        // Client-side removal buffer (prevents flicker during handoff)
-        if (ctx.isClient() && item.getProgress() > 1.3f) {
-            itemState.markForRemoval(item);
+    /**
+     * Client side of {@link #processItems}: items crossing the center turn toward the exit the server's
+     * deterministic routing picks, without waiting for the route sync. Removals and splits are decided by the
+     * server and arrive as sync ops, and items keep moving slightly past the end (until 1.3) to prevent visual
+     * flicker during the handoff.
+     */
+    private static void predictItems(TickContext ctx) {
+        PipeItemBuffer items = ctx.blockEntity().getItemBuffer();
+        TravelingItem view = ctx.routingView;
+        for (int i = items.size() - 1; i >= 0; i--) {
+            if (items.isStalled(i)) {
+                continue;
+            }
+
+            if ((items.consumeTickEvents(i) & PipeItemBuffer.CROSSED_CENTER) != 0) {
+                items.loadView(i, view);
+                RoutePlan plan = resolveRoutePlan(ctx.transportPipe, view);
+                Direction exit = switch (plan.getType()) {
+                    case REROUTE -> chooseExit(
+                            ctx.world().getGameTime(), ctx.pos(), items.getDirection(i), plan.getDirections());
+                    case SPLIT -> changesItemList(plan, view) ? null : view.getDirection();
+                    default -> null;
+                };
+                if (exit != null) {
+                    items.setDirection(i, exit);
+                    items.setRouted(i, true);
+                }
+            }
+
+            if (items.getProgress(i) > 1.3f) {
+                items.removeAt(i);
+            }
         }
     }
 
     /**
-     * Determine and execute the routing decision for an item.
+     * Merge items of the same variant, direction and routed state that travel within
+     * {@link LogisticsPipe.CONFIG#ITEM_MERGE_DISTANCE} of each other, up to a full stack. Fewer items means
+     * fewer routing calls, smaller sync payloads and fewer render draws in dense lines.
      *
-     * <p>Called when an item crosses the pipe center (0.5 progress). The item's exit direction
-     * is determined and locked in, allowing rendering to show the item moving toward its
-     * destination during the second half of travel, and ensuring client/server agreement
-     * on routing using deterministic randomness.
+     * <p>Only runs after items were added, since items already in the pipe were checked when they arrived.
+     * The higher slot is always merged into the lower one; the slot swapped into its place was already
+     * compared against every lower slot.
+     *
+     * @return true if any items were merged
      */
-    private static void routeItem(TickContext ctx, TravelingItem item, ItemTickState itemState) {
-        RoutePlan plan = resolveRoutePlan(ctx, item);
-        executeRoutePlan(ctx, item, plan, itemState);
+    private static boolean coalesceItems(TickContext ctx) {
+        PipeItemBuffer items = ctx.blockEntity().getItemBuffer();
+        if (!items.consumeItemsAdded() || items.size() < 2) {
+            return false;
+        }
+
+        boolean merged = false;
+        for (int source = items.size() - 1; source > 0; source--) {
+            for (int target = source - 1; target >= 0; target--) {
+                if (items.canMerge(target, source, LogisticsPipe.CONFIG.ITEM_MERGE_DISTANCE)) {
+                    ctx.blockEntity().queueItemSync(
+                            new PipeSyncPayload.MergeItems(items.getId(target), items.getId(source)));
+                    items.mergeInto(target, source);
+                    merged = true;
+                    break;
+                }
+            }
+        }
+        return merged;
     }
 
     /**
      * Consult modules for a routing plan, or fall back to default routing.
      *
+     * <p>Called when an item crosses the pipe center (0.5 progress). The item's exit direction is determined
+     * and locked in, allowing rendering to show the item moving toward its destination during the second half
+     * of travel, and ensuring client/server agreement on routing using deterministic randomness.
+     *
      * <p>Always returns an executable plan. Normalizes edge cases:
      * empty REROUTE → DROP, empty SPLIT → DISCARD.
      */
-    private static RoutePlan resolveRoutePlan(TickContext ctx, TravelingItem item) {
-        List<Direction> validDirections = getValidDirections(ctx.world(), ctx.pos(), ctx.state(), item.getDirection());
-        RoutePlan defaultPlan = validDirections.isEmpty() ? RoutePlan.drop() : RoutePlan.reroute(validDirections);
-
-        if (!ctx.hasPipe()) {
-            return defaultPlan;
-        }
+    private static RoutePlan resolveRoutePlan(TransportPipe pipe, TravelingItem item) {
+        // Connected sides other than the one the item entered from
+        int validMask = pipe.getConnectionMask() & ~DirectionMask.bit(item.getDirection().getOpposite());
+        RoutePlan defaultPlan = validMask == DirectionMask.NONE ? RoutePlan.drop() : RoutePlan.reroute(validMask);
 
-        RoutePlan customPlan = ctx.pipe().route(ctx.pipeContext(), item, validDirections);
+        RoutePlan customPlan = pipe.route(item, validMask);
 
         customPlan = switch (customPlan.getType()) {
             case REROUTE -> customPlan.getDirections().isEmpty() ? RoutePlan.drop() : customPlan;
@@ -226,206 +501,194 @@ public final class PipeRuntime {
         return customPlan.getType() == RoutePlan.Type.PASS ? defaultPlan : customPlan;
     }
 
-    private static void executeRoutePlan(TickContext ctx, TravelingItem item, RoutePlan plan, ItemTickState itemState) {
-        switch (plan.getType()) {
-            case DROP -> dropItem(ctx, item, itemState);
-            case DISCARD -> discardItem(item, itemState);
-            case REROUTE -> rerouteItem(ctx, item, plan, itemState);
-            case SPLIT -> splitItem(ctx, item, plan, itemState);
-            default -> {} // PASS should have been converted in resolveRoutePlan
-        }
+    /**
+     * Apply a routing plan to the item in the given slot.
+     *
+     * @return true if the item is still in its slot, false if it was removed
+     */
+    private static boolean executeRoutePlan(
+            PipeWorld world, TransportPipe pipe, PipeItemBuffer items, int index, TravelingItem item, RoutePlan plan) {
+        return switch (plan.getType()) {
+            case DROP -> dropItem(world, pipe, items, index, item);
+            case DISCARD -> discardItem(pipe, items, index);
+            case REROUTE -> rerouteItem(world, pipe, items, index, plan);
+            case SPLIT -> splitItem(pipe, items, index, item, plan);
+            default -> true; // PASS should have been converted in resolveRoutePlan
+        };
     }
 
-    private static void dropItem(TickContext ctx, TravelingItem item, ItemTickState itemState) {
-        if (ctx.isServer()) {
-            PipeBlockEntity.dropItem(ctx.world(), ctx.pos(), item);
-        }
-        itemState.markForDiscard(item);
+    private static boolean dropItem(
+            PipeWorld world, TransportPipe pipe, PipeItemBuffer items, int index, TravelingItem item) {
+        world.dropItem(pipe.getBlockPos(), item.getStack());
+        return discardItem(pipe, items, index);
     }
 
-    private static void discardItem(TravelingItem item, ItemTickState itemState) {
-        itemState.markForDiscard(item);
+    private static boolean discardItem(TransportPipe pipe, PipeItemBuffer items, int index) {
+        pipe.queueItemSync(new PipeSyncPayload.RemoveItem(items.getId(index)));
+        items.removeAt(index);
+        return false;
     }
 
-    private static void rerouteItem(TickContext ctx, TravelingItem item, RoutePlan plan, ItemTickState itemState) {
-        List<Direction> candidates = plan.getDirections();
+    private static boolean changesItemList(RoutePlan plan, TravelingItem item) {
+        return switch (plan.getType()) {
+            case DROP, DISCARD -> true;
+            case SPLIT -> plan.getItems().size() != 1 || plan.getItems().getFirst() != item;
+            default -> false;
+        };
+    }
 
-        Direction chosen = candidates.size() == 1
-                ? candidates.getFirst()
-                : chooseRandomDirection(ctx.world(), ctx.pos(), item.getDirection(), candidates);
+    private static boolean rerouteItem(
+            PipeWorld world, TransportPipe pipe, PipeItemBuffer items, int index, RoutePlan plan) {
+        Direction chosen = chooseExit(
+                world.getGameTime(), pipe.getBlockPos(), items.getDirection(index), plan.getDirections());
 
-        item.setDirection(chosen);
-        item.setRouted(true);
+        items.setDirection(index, chosen);
+        items.setRouted(index, true);
+        pipe.queueItemSync(new PipeSyncPayload.RouteItem(items.getId(index), chosen));
+        pipe.onRouted(chosen);
+        return true;
+    }
 
-        if (ctx.isServer()) {
-            itemState.markNeedsSync();
+    private static Direction chooseExit(
+            long gameTime, BlockPos pos, Direction currentDirection, List<Direction> candidates) {
+        return candidates.size() == 1
+                ? candidates.getFirst()
+                : PipeRandom.chooseDirection(gameTime, pos, currentDirection, candidates);
+    }
+
+    /**
+     * Register this pipe as feeding the inventory on the given side, so other pipes see the items it routed
+     * there as reserved (see {@link InsertionReservations}).
+     */
+    private static void trackInventoryFeed(TickContext ctx, Direction side) {
+        if (ctx.hasPipe() && ctx.pipeContext().isInventoryConnection(side)) {
+            ctx.scheduler().getReservations().addFeeder(ctx.blockEntity(), side);
         }
     }
 
-    private static void splitItem(TickContext ctx, TravelingItem item, RoutePlan plan, ItemTickState itemState) {
+    private static boolean splitItem(
+            TransportPipe pipe, PipeItemBuffer items, int index, TravelingItem item, RoutePlan plan) {
         List<TravelingItem> routed = plan.getItems();
 
         // Single item returned (no actual split)
         if (routed.size() == 1 && routed.getFirst() == item) {
-            item.setRouted(true);
-            if (ctx.isServer()) {
-                itemState.markNeedsSync();
-            }
-            return;
+            items.setDirection(index, item.getDirection());
+            items.setRouted(index, true);
+            pipe.queueItemSync(new PipeSyncPayload.RouteItem(items.getId(index), item.getDirection()));
+            pipe.onRouted(item.getDirection());
+            return true;
         }
 
-        // Actual split - replace original with new items
-        List<TravelingItem> replacements = new ArrayList<>();
+        // Actual split - replace original with new items (appended, so they are not processed this pass)
+        pipe.queueItemSync(new PipeSyncPayload.RemoveItem(items.getId(index)));
+        items.removeAt(index);
         for (TravelingItem routedItem : routed) {
             if (routedItem != item) {
                 routedItem.setProgress(item.getProgress());
                 routedItem.setSpeed(item.getSpeed());
                 routedItem.setRouted(true);
             }
-            replacements.add(routedItem);
+            int added = items.add(routedItem);
+            pipe.queueItemSync(new PipeSyncPayload.AddItem(
+                    items.getId(added),
+                    routedItem.getStack(),
+                    routedItem.getDirection(),
+                    routedItem.getSpeed(),
+                    routedItem.getProgress(),
+                    routedItem.isRouted()));
+            if (routedItem.isRouted()) {
+                pipe.onRouted(routedItem.getDirection());
+            }
         }
-        itemState.markForReplacement(item, replacements);
+        return false;
     }
 
     /**
-     * Apply pending item list modifications after processing.
-     *
-     * <p>Client and server handle removals differently: the server removes items at progress 1.0
-     * for routing, while the client keeps them slightly longer (until 1.3) to prevent visual
-     * flicker during the handoff to the next pipe.
+     * Hand the item with the given id to the next pipe or inventory at the end of this segment (phase 2 of the
+     * scheduler tick, see {@link ItemHandoff}). Direction was already determined at the pipe center (0.5
+     * progress).
      */
-    private static void applyItemChanges(TickContext ctx, ItemTickState itemState) {
-        List<TravelingItem> items = ctx.blockEntity().getTravelingItems();
-
-        if (ctx.isClient()) {
-            items.removeAll(itemState.toRemove);
-            items.removeAll(itemState.toDiscard);
-            items.removeAll(itemState.toReplace);
-            items.addAll(itemState.toAdd);
-        } else {
-            items.removeAll(itemState.toRoute);
-            items.removeAll(itemState.toDiscard);
-            items.removeAll(itemState.toReplace);
-            items.addAll(itemState.toAdd);
-        }
-    }
-
-    private static void syncIfNeeded(TickContext ctx, ItemTickState itemState) {
-        if (ctx.isServer() && itemState.needsSync) {
-            ctx.blockEntity().setChanged();
-            ctx.world().sendBlockUpdated(ctx.pos(), ctx.state(), ctx.state(), 3);
+    static void completeHandoff(LevelPipeWorld world, PipeBlockEntity blockEntity, int id) {
+        PipeItemBuffer items = blockEntity.getItemBuffer();
+        int index = items.indexOf(id);
+        if (index < 0) {
+            return; // merged into another item since it was queued
+        }
+
+        PipeHandoffEvent event = new PipeHandoffEvent();
+        event.begin();
+        BlockPos pos = blockEntity.getBlockPos();
+        ItemStack stack = items.getStack(index);
+        Direction direction = items.getDirection(index);
+        ItemHandoff.Outcome outcome = ItemHandoff.transfer(world, pos, items, index);
+        long inserted = switch (outcome) {
+            case DROPPED -> {
+                blockEntity.queueItemSync(new PipeSyncPayload.RemoveItem(id));
+                yield 0;
+            }
+            case DELIVERED -> {
+                blockEntity.queueItemSync(new PipeSyncPayload.HandOffItem(id));
+                yield stack.getCount();
+            }
+            case PARTIAL, REFUSED -> {
+                ItemStack remainder = items.getStack(index);
+                blockEntity.queueItemSync(new PipeSyncPayload.StallItem(id, remainder, direction));
+                yield stack.getCount() - remainder.getCount();
+            }
+            case WAITING -> 0;
+        };
+        if (outcome != ItemHandoff.Outcome.WAITING) {
+            blockEntity.queueSave();
         }
-    }
-
-    private static void transferCompletedItems(TickContext ctx, ItemTickState itemState) {
-        if (ctx.isClient()) {
-            return;
+        if (outcome != ItemHandoff.Outcome.REFUSED && outcome != ItemHandoff.Outcome.WAITING
+                && blockEntity.consumeRefusedForCapacity()) {
+            retryStalledFeeders(world, blockEntity);
         }
 
-        boolean hasChanges =
-                !itemState.toRoute.isEmpty() || !itemState.toDiscard.isEmpty() || !itemState.toAdd.isEmpty();
-
-        if (!hasChanges) {
-            return;
+        event.end();
+        if (event.shouldCommit()) {
+            event.setLocation(world.getLevel(), pos);
+            event.outcome = outcome.name().toLowerCase(Locale.ROOT);
+            event.item = BuiltInRegistries.ITEM.getKey(stack.getItem()).toString();
+            event.count = stack.getCount();
+            event.inserted = inserted;
+            event.commit();
         }
-
-        for (TravelingItem item : itemState.toRoute) {
-            transferItem(ctx.world(), ctx.pos(), item);
-        }
-
-        ctx.blockEntity().setChanged();
-        ctx.world().sendBlockUpdated(ctx.pos(), ctx.state(), ctx.state(), 3);
     }
 
     /**
-     * Transfer an item to the next pipe or inventory at the end of this segment.
-     * Direction was already determined at the pipe center (0.5 progress).
+     * Items left a pipe that had turned items away for lack of room, so neighboring pipes waiting on it retry
+     * on their next tick instead of at the end of their back-off.
      */
-    private static void transferItem(Level world, BlockPos pos, TravelingItem item) {
-        Direction direction = item.getDirection();
-        BlockPos targetPos = pos.relative(direction);
-
-        Storage<ItemVariant> storage = ItemStorage.SIDED.find(world, targetPos, direction.getOpposite());
-        if (storage != null) {
-            try (Transaction transaction = Transaction.openOuter()) {
-                long inserted;
-                if (storage instanceof PipeItemStorage pipeStorage) {
-                    inserted = pipeStorage.insert(item, transaction);
-                } else {
-                    ItemVariant variant = ItemVariant.of(item.getStack());
-                    inserted = storage.insert(variant, item.getStack().getCount(), transaction);
-                }
-
-                if (inserted > 0) {
-                    transaction.commit();
-                    if (inserted < item.getStack().getCount()) {
-                        item.getStack().shrink((int) inserted);
-                        PipeBlockEntity.dropItem(world, pos, item);
-                    }
-                    return;
-                }
+    private static void retryStalledFeeders(LevelPipeWorld world, PipeBlockEntity blockEntity) {
+        ServerLevel level = world.getLevel();
+        BlockPos pos = blockEntity.getBlockPos();
+        for (Direction direction : DIRECTIONS) {
+            BlockPos neighborPos = pos.relative(direction);
+            if (level.isLoaded(neighborPos) && level.getBlockEntity(neighborPos) instanceof PipeBlockEntity feeder) {
+                feeder.getItemBuffer().resetStallBackoff(direction.getOpposite());
             }
         }
-
-        PipeBlockEntity.dropItem(world, pos, item);
     }
 
-    private static List<Direction> getValidDirections(
-            Level world, BlockPos pos, BlockState state, Direction currentDirection) {
-        List<Direction> validDirections = new ArrayList<>();
-        Direction oppositeDirection = currentDirection.getOpposite();
-
-        if (!(state.getBlock() instanceof PipeBlock pipeBlock)) {
-            return validDirections;
-        }
-
-        for (Direction direction : Direction.values()) {
-            if (direction == oppositeDirection) {
-                continue;
-            }
-
-            PipeConnection.Type type = pipeBlock.getConnectionType(world, pos, direction);
-            if (type != PipeConnection.Type.NONE) {
-                validDirections.add(direction);
-            }
-        }
-
-        return validDirections;
-    }
-
-    private static Direction chooseRandomDirection(
-            Level world, BlockPos pos, Direction currentDirection, List<Direction> options) {
-        long seed = mixHash(pos.asLong(), world.getGameTime(), currentDirection.get3DDataValue());
-        java.util.Random random = new java.util.Random(seed);
-        return options.get(random.nextInt(options.size()));
-    }
-
-    private static List<Direction> getAllConnectedDirections(Level world, BlockPos pos, BlockState state) {
-        List<Direction> connected = new ArrayList<>();
-        if (!(state.getBlock() instanceof PipeBlock pipeBlock)) {
-            return connected;
+    /**
+     * Connected sides as a bitmask. Pipes with modules read the block entity cache (refreshed at the start of
+     * the tick); bare pipe blocks fall back to a live lookup.
+     */
+    private static int getConnectionMask(TickContext ctx) {
+        if (ctx.hasPipe()) {
+            return ctx.pipeContext().getConnectionMask();
         }
 
-        for (Direction direction : Direction.values()) {
-            PipeConnection.Type type = pipeBlock.getConnectionType(world, pos, direction);
-            if (type != PipeConnection.Type.NONE) {
-                connected.add(direction);
+        int mask = 0;
+        if (ctx.state().getBlock() instanceof PipeBlock pipeBlock) {
+            for (Direction direction : DIRECTIONS) {
+                PipeConnection.Type type = pipeBlock.getDynamicConnectionType(ctx.world(), ctx.pos(), direction);
+                if (type != PipeConnection.Type.NONE) {
+                    mask |= DirectionMask.bit(direction);
+                }
             }
         }
-        return connected;
-    }
-
-    private static long mixHash(long a, long b, long c) {
-        long hash = a;
-        hash = hash * 31 + b;
-        hash = hash * 31 + c;
-
-        hash ^= (hash >>> 33);
-        hash *= 0xff51afd7ed558ccdL;
-        hash ^= (hash >>> 33);
-        hash *= 0xc4ceb9fe1a85ec53L;
-        hash ^= (hash >>> 33);
-
-        return hash;
+        return mask;
     }
 }
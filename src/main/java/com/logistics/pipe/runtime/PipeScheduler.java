@@ -0,0 +1,490 @@
+package com.logistics.pipe.runtime;
+
+import com.logistics.LogisticsPipe;
+import com.logistics.core.lib.jfr.PipeSyncEvent;
+import com.logistics.core.lib.metrics.LogisticsMetrics;
+import com.logistics.core.lib.metrics.MetricsExporter;
+import com.logistics.pipe.block.entity.PipeBlockEntity;
+import com.logistics.pipe.network.PipeSyncPayload;
+import com.sun.management.ThreadMXBean;
+import io.netty.buffer.Unpooled;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Drives server-side pipe ticks for one level from a single loop instead of per-block-entity tickers.
+ *
+ * <p>Awake pipes live in a dense array (dormant and removed pipes are compacted out after each pass).
+ * Each tick runs in two phases:
+ * <ol>
+ *   <li>every active pipe ticks; items that reach the end of a segment are queued. This is split into module
+ *   ticks (server thread), pure item movement ({@link PipeRuntime#advanceItems}, which only touches the pipe's
+ *   own buffer and runs on a fork/join pool once enough pipes are active) and routing of the items that
+ *   crossed their pipe's center (server thread, in scheduling order)</li>
+ *   <li>queued items are handed off to the next pipe or inventory</li>
+ * </ol>
+ * Deferring handoffs means an item is never moved twice in one tick, regardless of pipe order. Items stay in
+ * their pipe until the handoff succeeds; refused items stall at the exit and are queued again each tick.
+ *
+ * <p>Pipes that changed during the tick are kept in a dirty set. At the end of the tick each one is saved once
+ * ({@code setChanged}) and its pending item/connection/module changes are sent to tracking clients as one
+ * {@link PipeSyncPayload}.
+ */
+public final class PipeScheduler {
+    private static final Map<ResourceKey<Level>, PipeScheduler> SCHEDULERS = new HashMap<>();
+    private static final int INITIAL_CAPACITY = 64;
+    // Per-thread allocation counter, or null if the JVM does not provide one
+    private static final @Nullable ThreadMXBean THREADS = getAllocationCounter();
+
+    private final ServerLevel level;
+
+    private PipeBlockEntity[] active = new PipeBlockEntity[INITIAL_CAPACITY];
+    private int activeCount = 0;
+
+    // Pipes ticking this tick and their movement parameters (acceleration, drag, max speed per pipe)
+    private PipeBlockEntity[] ticking = new PipeBlockEntity[INITIAL_CAPACITY];
+    private float[] motion = new float[INITIAL_CAPACITY * 3];
+
+    // Dormant pipes waiting on a module-scheduled wake time
+    private final List<PipeBlockEntity> timedWakes = new ArrayList<>();
+
+    // Handoffs queued during phase 1 (parallel arrays: source pipe and item id)
+    private PipeBlockEntity[] pendingPipes = new PipeBlockEntity[INITIAL_CAPACITY];
+    private int[] pendingIds = new int[INITIAL_CAPACITY];
+    private int pendingCount = 0;
+
+    // Pipes with a pending save or client sync, flushed once at the end of the tick
+    // (each pipe adds itself at most once per tick, see PipeBlockEntity#markDirty)
+    private final List<PipeBlockEntity> dirtyPipes = new ArrayList<>();
+
+    private final InsertionReservations reservations = new InsertionReservations();
+    private final PipeNetworkGraph networks;
+    private final RemoteCapacityCache remoteCapacity;
+
+    private int lastTickedCount = 0;
+    private long lastItemPhaseAllocatedBytes = -1;
+    private final String metricsLabel;
+    private final LevelPipeWorld world;
+
+    private PipeScheduler(ServerLevel level) {
+        this.level = level;
+        this.networks = new PipeNetworkGraph(level);
+        this.remoteCapacity = new RemoteCapacityCache(level);
+        this.metricsLabel = level.dimension().identifier().toString();
+        this.world = new LevelPipeWorld(level);
+    }
+
+    public static PipeScheduler get(ServerLevel level) {
+        PipeScheduler scheduler = SCHEDULERS.get(level.dimension());
+        if (scheduler == null || scheduler.level != level) {
+            scheduler = new PipeScheduler(level);
+            SCHEDULERS.put(level.dimension(), scheduler);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Run the pipe tick for a level. Registered on the end of each server level tick.
+     */
+    public static void tickLevel(ServerLevel level) {
+        PipeScheduler scheduler = SCHEDULERS.get(level.dimension());
+        if (scheduler != null && scheduler.level == level) {
+            scheduler.tick();
+        }
+    }
+
+    /**
+     * Drop the pipe network containing the given position. Does not create a scheduler for the level, so pipes
+     * removed while the level unloads do not bring it back.
+     */
+    public static void invalidateNetwork(ServerLevel level, BlockPos pos) {
+        PipeScheduler scheduler = SCHEDULERS.get(level.dimension());
+        if (scheduler != null && scheduler.level == level) {
+            scheduler.networks.invalidate(pos);
+        }
+    }
+
+    /**
+     * Drop a removed pipe's entries from the level's insertion reservations. Like {@link #invalidateNetwork},
+     * this does not create a scheduler.
+     */
+    public static void removeFeeder(ServerLevel level, PipeBlockEntity blockEntity) {
+        PipeScheduler scheduler = SCHEDULERS.get(level.dimension());
+        if (scheduler != null && scheduler.level == level) {
+            scheduler.reservations.removeFeeder(blockEntity);
+        }
+    }
+
+    public static void clear(ServerLevel level) {
+        PipeScheduler scheduler = SCHEDULERS.remove(level.dimension());
+        if (scheduler != null) {
+            LogisticsMetrics.ITEMS_IN_FLIGHT.remove(scheduler.metricsLabel);
+        }
+    }
+
+    /**
+     * Add a pipe to the active set. No-op if it is already scheduled.
+     */
+    public void schedule(PipeBlockEntity blockEntity) {
+        if (blockEntity.isScheduled()) {
+            return;
+        }
+        if (activeCount == active.length) {
+            active = Arrays.copyOf(active, active.length * 2);
+        }
+        active[activeCount++] = blockEntity;
+        blockEntity.setScheduled(true);
+    }
+
+    /**
+     * Track a dormant pipe that asked to be woken at a later game time.
+     */
+    public void scheduleTimedWake(PipeBlockEntity blockEntity) {
+        if (!blockEntity.isTimedWakePending()) {
+            timedWakes.add(blockEntity);
+            blockEntity.setTimedWakePending(true);
+        }
+    }
+
+    /**
+     * Queue an item that reached the end of its segment; it is transferred after all pipes have ticked.
+     */
+    void deferTransfer(PipeBlockEntity source, int itemId) {
+        if (pendingCount == pendingPipes.length) {
+            int capacity = pendingPipes.length * 2;
+            pendingPipes = Arrays.copyOf(pendingPipes, capacity);
+            pendingIds = Arrays.copyOf(pendingIds, capacity);
+        }
+        pendingPipes[pendingCount] = source;
+        pendingIds[pendingCount] = itemId;
+        pendingCount++;
+    }
+
+    /**
+     * Add a pipe to the dirty set. Its pending save and sync changes are flushed at the end of this tick.
+     */
+    public void markDirty(PipeBlockEntity blockEntity) {
+        dirtyPipes.add(blockEntity);
+    }
+
+    /**
+     * The level as seen by item transport (see {@link PipeWorld}).
+     */
+    LevelPipeWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * Items already routed toward inventories in this level (see {@link InsertionReservations}).
+     */
+    public InsertionReservations getReservations() {
+        return reservations;
+    }
+
+    /**
+     * Connected pipe networks and their routing tables (see {@link PipeNetworkGraph}).
+     */
+    public PipeNetworkGraph getNetworks() {
+        return networks;
+    }
+
+    /**
+     * Per-tick insert capacity of inventories routed to through a network (see {@link RemoteCapacityCache}).
+     */
+    public RemoteCapacityCache getRemoteCapacity() {
+        return remoteCapacity;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public int getLastTickedCount() {
+        return lastTickedCount;
+    }
+
+    /**
+     * Bytes the server thread allocated during phase 1 (module ticks, movement and item processing) of the last
+     * tick, or -1 if the JVM does not count allocations per thread. Movement on the worker pool is not counted.
+     */
+    public long getLastItemPhaseAllocatedBytes() {
+        return lastItemPhaseAllocatedBytes;
+    }
+
+    private void tick() {
+        if (level.tickRateManager().runsNormally()) {
+            tickPipes();
+        }
+
+        // Changes can also come from outside the pipe pass (insertions by other blocks, player configuration)
+        flushDirtyPipes();
+    }
+
+    private void tickPipes() {
+        long gameTime = level.getGameTime();
+        wakeTimedPipes(gameTime);
+        if (gameTime % RemoteCapacityCache.EXPIRE_TICKS == 0) {
+            remoteCapacity.expire(gameTime);
+        }
+
+        // Phase 1: advance items. Pipes woken during the pass are appended and start ticking next tick.
+        long allocatedBefore = getAllocatedBytes();
+        int count = collectTickingPipes(gameTime);
+        lastTickedCount = count;
+
+        // A module tick can break blocks, so re-check removal before each step
+        for (int i = 0; i < count; i++) {
+            if (!ticking[i].isRemoved()) {
+                PipeRuntime.tickModules(level, ticking[i], motion, i * 3);
+            }
+        }
+
+        if (count >= LogisticsPipe.CONFIG.PARALLEL_MOVEMENT_THRESHOLD) {
+            getMovementPool().invoke(new AdvanceTask(ticking, motion, 0, count));
+        } else {
+            advanceItems(ticking, motion, 0, count);
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (!ticking[i].isRemoved()) {
+                PipeRuntime.finishTick(level, ticking[i]);
+            }
+        }
+        Arrays.fill(ticking, 0, count, null);
+        lastItemPhaseAllocatedBytes = allocatedBefore < 0 ? -1 : getAllocatedBytes() - allocatedBefore;
+
+        // Phase 2: hand off items that completed their segment
+        runDeferredTransfers();
+
+        compact();
+    }
+
+    /**
+     * Copy the active pipes that tick this tick into {@link #ticking}.
+     */
+    private int collectTickingPipes(long gameTime) {
+        if (ticking.length < activeCount) {
+            ticking = new PipeBlockEntity[active.length];
+            motion = new float[active.length * 3];
+        }
+
+        int count = 0;
+        long lastChunk = Long.MIN_VALUE;
+        boolean chunkTicking = false;
+        for (int i = 0; i < activeCount; i++) {
+            PipeBlockEntity blockEntity = active[i];
+            if (blockEntity.isRemoved() || blockEntity.isDormant(gameTime)) {
+                continue;
+            }
+
+            // Match vanilla: only tick block entities in block-ticking chunks. Pipes loaded together share
+            // chunks, so consecutive entries usually hit the cached result.
+            long chunk = ChunkPos.asLong(blockEntity.getBlockPos());
+            if (chunk != lastChunk) {
+                lastChunk = chunk;
+                chunkTicking = level.shouldTickBlocksAt(chunk);
+            }
+            if (chunkTicking) {
+                ticking[count++] = blockEntity;
+            }
+        }
+        return count;
+    }
+
+    private static long getAllocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static @Nullable ThreadMXBean getAllocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()
+                && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+
+    private static void advanceItems(PipeBlockEntity[] pipes, float[] motion, int from, int to) {
+        for (int i = from; i < to; i++) {
+            PipeRuntime.advanceItems(pipes[i].getItemBuffer(), motion[i * 3], motion[i * 3 + 1], motion[i * 3 + 2]);
+        }
+    }
+
+    private void wakeTimedPipes(long gameTime) {
+        for (int i = timedWakes.size() - 1; i >= 0; i--) {
+            PipeBlockEntity blockEntity = timedWakes.get(i);
+            if (blockEntity.isRemoved()) {
+                removeTimedWake(i);
+            } else if (!blockEntity.isDormant(gameTime)) {
+                // compact() dropped the pipe from the active set when it went dormant, so add it back
+                schedule(blockEntity);
+                removeTimedWake(i);
+            }
+        }
+    }
+
+    private void removeTimedWake(int index) {
+        // Order does not matter, so swap in the last entry instead of shifting
+        int last = timedWakes.size() - 1;
+        timedWakes.get(index).setTimedWakePending(false);
+        timedWakes.set(index, timedWakes.get(last));
+        timedWakes.remove(last);
+    }
+
+    private void runDeferredTransfers() {
+        // Transfers can wake pipes but never queue new handoffs
+        for (int i = 0; i < pendingCount; i++) {
+            PipeBlockEntity source = pendingPipes[i];
+            if (!source.isRemoved()) {
+                PipeRuntime.completeHandoff(world, source, pendingIds[i]);
+            }
+        }
+        Arrays.fill(pendingPipes, 0, pendingCount, null);
+        pendingCount = 0;
+    }
+
+    private void flushDirtyPipes() {
+        for (int i = 0; i < dirtyPipes.size(); i++) {
+            PipeBlockEntity blockEntity = dirtyPipes.get(i);
+            List<PipeSyncPayload.Op> ops = blockEntity.flushPendingChanges();
+            if (blockEntity.isRemoved() || ops.isEmpty()) {
+                continue;
+            }
+
+            Collection<ServerPlayer> players = PlayerLookup.tracking(level, blockEntity.getBlockPos());
+            if (players.isEmpty()) {
+                continue; // the full block entity data is sent when a player starts tracking the chunk
+            }
+
+            PipeSyncEvent event = new PipeSyncEvent();
+            event.begin();
+            PipeSyncPayload payload = new PipeSyncPayload(blockEntity.getBlockPos(), ops);
+            for (ServerPlayer player : players) {
+                ServerPlayNetworking.send(player, payload);
+            }
+            event.end();
+
+            // Measuring the size encodes the payload again, so only do it when someone looks at it
+            boolean commitEvent = event.shouldCommit();
+            int payloadBytes = commitEvent || MetricsExporter.isActive() ? getEncodedSize(payload) : 0;
+            LogisticsMetrics.SYNC_PACKETS.add(players.size());
+            if (MetricsExporter.isActive()) {
+                LogisticsMetrics.SYNC_BYTES.add((long) payloadBytes * players.size());
+                LogisticsMetrics.SYNC_PAYLOAD_SIZE.observe(payloadBytes);
+            }
+            if (commitEvent) {
+                event.setLocation(level, blockEntity.getBlockPos());
+                event.ops = ops.size();
+                event.players = players.size();
+                event.payloadBytes = payloadBytes;
+                event.commit();
+            }
+        }
+        dirtyPipes.clear();
+    }
+
+    /**
+     * Encoded size of a sync payload. Encodes it again, so only used while a recording wants the size.
+     */
+    private int getEncodedSize(PipeSyncPayload payload) {
+        RegistryFriendlyByteBuf buf = new RegistryFriendlyByteBuf(Unpooled.buffer(), level.registryAccess());
+        try {
+            PipeSyncPayload.STREAM_CODEC.encode(buf, payload);
+            return buf.readableBytes();
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static ForkJoinPool getMovementPool() {
+        return MovementPool.INSTANCE;
+    }
+
+    /**
+     * Worker pool for item movement, created on first use. Daemon threads, so it never blocks shutdown.
+     */
+    private static final class MovementPool {
+        static final ForkJoinPool INSTANCE = new ForkJoinPool(
+                Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("Logistics Pipe Worker-" + thread.getPoolIndex());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                null,
+                false);
+    }
+
+    /**
+     * Splits a range of ticking pipes until chunks are small enough to advance on one worker.
+     */
+    private static final class AdvanceTask extends RecursiveAction {
+        private static final int CHUNK_SIZE = 128;
+
+        private final PipeBlockEntity[] pipes;
+        private final float[] motion;
+        private final int from;
+        private final int to;
+
+        AdvanceTask(PipeBlockEntity[] pipes, float[] motion, int from, int to) {
+            this.pipes = pipes;
+            this.motion = motion;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                advanceItems(pipes, motion, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new AdvanceTask(pipes, motion, from, middle), new AdvanceTask(pipes, motion, middle, to));
+        }
+    }
+
+    private void compact() {
+        int write = 0;
+        // Counting items walks every active pipe's buffer, so only do it while something reads the gauge
+        boolean countInFlight = MetricsExporter.isActive();
+        long inFlight = 0;
+        for (int read = 0; read < activeCount; read++) {
+            PipeBlockEntity blockEntity = active[read];
+            if (blockEntity.isRemoved() || blockEntity.isDormant(level.getGameTime())) {
+                blockEntity.setScheduled(false);
+                continue;
+            }
+            active[write++] = blockEntity;
+            if (countInFlight) {
+                inFlight += blockEntity.getTotalItemCount();
+            }
+        }
+        Arrays.fill(active, write, activeCount, null);
+        activeCount = write;
+
+        if (countInFlight) {
+            // Dormant pipes are empty, so the active set holds every traveling item
+            LogisticsMetrics.ITEMS_IN_FLIGHT.set(metricsLabel, inFlight);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.logistics.pipe.runtime;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * The world around pipes as seen by item transport: game time, the inventories and pipes next to a pipe, and a
+ * place to drop items that have nowhere to go.
+ *
+ * <p>{@link LevelPipeWorld} is the game level. Transport code written against this interface (currently
+ * {@link ItemHandoff}, {@link PipeItemBuffer} movement and {@link PipeRuntime#processItems} over a
+ * {@link TransportPipe}) can also run on an in-memory grid, e.g. a headless simulator benchmarking large
+ * networks in a plain JVM.
+ */
+public interface PipeWorld {
+    /**
+     * Returned by {@link #insertItem} when nothing at the position accepts items from that side.
+     */
+    long NO_STORAGE = -1;
+
+    long getGameTime();
+
+    /**
+     * Insert as much of the stack as the block at {@code pos} accepts through {@code side}. The stack is not
+     * modified. A pipe receiving the items keeps them at {@code speed}.
+     *
+     * @return the number of items inserted, or {@link #NO_STORAGE}
+     */
+    long insertItem(BlockPos pos, Direction side, ItemStack stack, float speed);
+
+    /**
+     * Whether the block at {@code pos} is a pipe, as opposed to an inventory.
+     */
+    boolean isPipe(BlockPos pos);
+
+    /**
+     * Drop a copy of the stack at the given pipe.
+     */
+    void dropItem(BlockPos pos, ItemStack stack);
+}
@@ -0,0 +1,118 @@
+package com.logistics.pipe.runtime;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Insertable amount of inventories elsewhere in a pipe network, per position, side and variant, simulated at
+ * most once per tick for the whole level.
+ *
+ * <p>Overflow routing (see {@link PipeNetwork#nextHopToNearestRemoteSink}) asks about the same few inventories
+ * for every item that finds its own neighbors full, so the answers are shared by every pipe of the level for the
+ * tick, like an insertion pipe's own per-tick snapshot of its neighbors. Storage lookups go through a
+ * {@link BlockApiCache} per position that is kept across ticks; positions nobody asked about for
+ * {@code EXPIRE_TICKS} are dropped by {@link #expire}.
+ */
+public final class RemoteCapacityCache {
+    // Large enough that the simulated insert is limited by the inventory, not the request
+    private static final long PROBE_AMOUNT = Integer.MAX_VALUE;
+    static final long EXPIRE_TICKS = 200;
+
+    private final ServerLevel level;
+    private final Map<BlockPos, Target> targets = new HashMap<>();
+
+    RemoteCapacityCache(ServerLevel level) {
+        this.level = level;
+    }
+
+    /**
+     * How much of the stack's variant the inventory at {@code pos} would accept through {@code side} this tick,
+     * before reservations.
+     */
+    public long getCapacity(BlockPos pos, Direction side, ItemStack stack) {
+        long now = level.getGameTime();
+        Target target = targets.get(pos);
+        if (target == null) {
+            target = new Target(BlockApiCache.create(ItemStorage.SIDED, level, pos));
+            targets.put(pos.immutable(), target);
+        }
+        return target.getCapacity(now, side, stack);
+    }
+
+    /**
+     * Drop positions that were not asked about recently.
+     */
+    void expire(long gameTime) {
+        Iterator<Target> iterator = targets.values().iterator();
+        while (iterator.hasNext()) {
+            if (gameTime - iterator.next().gameTime > EXPIRE_TICKS) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class Target {
+        private static final int INITIAL_CAPACITY = 2;
+
+        private final BlockApiCache<Storage<ItemVariant>, Direction> storageCache;
+        private long gameTime = Long.MIN_VALUE;
+        private ItemStack[] templates = new ItemStack[INITIAL_CAPACITY];
+        private byte[] sides = new byte[INITIAL_CAPACITY];
+        private long[] capacities = new long[INITIAL_CAPACITY];
+        private int size = 0;
+
+        Target(BlockApiCache<Storage<ItemVariant>, Direction> storageCache) {
+            this.storageCache = storageCache;
+        }
+
+        long getCapacity(long now, Direction side, ItemStack stack) {
+            if (now != gameTime) {
+                gameTime = now;
+                Arrays.fill(templates, 0, size, null);
+                size = 0;
+            }
+
+            byte sideId = (byte) side.get3DDataValue();
+            for (int i = 0; i < size; i++) {
+                if (sides[i] == sideId && ItemStack.isSameItemSameComponents(templates[i], stack)) {
+                    return capacities[i];
+                }
+            }
+
+            long capacity = simulateInsert(storageCache.find(side), stack);
+            if (size == templates.length) {
+                int grown = templates.length * 2;
+                templates = Arrays.copyOf(templates, grown);
+                sides = Arrays.copyOf(sides, grown);
+                capacities = Arrays.copyOf(capacities, grown);
+            }
+            // Items keep their stack for the whole tick and the entries are reset next tick
+            templates[size] = stack;
+            sides[size] = sideId;
+            capacities[size] = capacity;
+            size++;
+            return capacity;
+        }
+
+        private static long simulateInsert(@Nullable Storage<ItemVariant> storage, ItemStack stack) {
+            if (storage == null) {
+                return 0;
+            }
+            try (Transaction transaction = Transaction.openOuter()) {
+                return storage.insert(ItemVariant.of(stack), PROBE_AMOUNT, transaction);
+            }
+        }
+    }
+}
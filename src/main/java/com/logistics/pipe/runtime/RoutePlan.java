@@ -16,6 +16,15 @@ public final class RoutePlan {
     private static final RoutePlan DROP = new RoutePlan(Type.DROP, List.of(), List.of());
     private static final RoutePlan DISCARD = new RoutePlan(Type.DISCARD, List.of(), List.of());
 
+    // One shared REROUTE plan per direction set, so routing by mask or single direction does not allocate
+    private static final RoutePlan[] REROUTE_BY_MASK = new RoutePlan[DirectionMask.ALL + 1];
+
+    static {
+        for (int mask = 0; mask <= DirectionMask.ALL; mask++) {
+            REROUTE_BY_MASK[mask] = new RoutePlan(Type.REROUTE, DirectionMask.toList(mask), List.of());
+        }
+    }
+
     private final Type type;
     private final List<Direction> directions;
     private final List<TravelingItem> items;
@@ -39,11 +48,21 @@ public final class RoutePlan {
     }
 
     public static RoutePlan reroute(List<Direction> directions) {
+        if (directions.size() == 1) {
+            return reroute(directions.getFirst());
+        }
         return new RoutePlan(Type.REROUTE, List.copyOf(directions), List.of());
     }
 
     public static RoutePlan reroute(Direction direction) {
-        return new RoutePlan(Type.REROUTE, List.of(direction), List.of());
+        return REROUTE_BY_MASK[DirectionMask.bit(direction)];
+    }
+
+    /**
+     * Reroute to the directions in a {@link DirectionMask}. Returns a shared instance.
+     */
+    public static RoutePlan reroute(int directionMask) {
+        return REROUTE_BY_MASK[directionMask & DirectionMask.ALL];
     }
 
     public static RoutePlan split(List<TravelingItem> items) {
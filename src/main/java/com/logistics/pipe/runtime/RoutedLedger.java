@@ -0,0 +1,86 @@
+package com.logistics.pipe.runtime;
+
+import java.util.Arrays;
+import net.minecraft.core.Direction;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * Running totals of routed items per exit side and variant for one pipe.
+ *
+ * <p>Kept in step by {@link PipeItemBuffer} as items are added, routed, merged and removed, so insertion
+ * routing can ask how much of a variant is already headed for a side without rescanning the buffer.
+ * Pipes rarely carry more than a handful of variants at once, so entries are a small linear table.
+ */
+final class RoutedLedger {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private ItemStack[] templates = new ItemStack[INITIAL_CAPACITY];
+    private byte[] sides = new byte[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    long get(Direction side, ItemStack stack) {
+        int index = find((byte) side.get3DDataValue(), stack);
+        return index < 0 ? 0 : amounts[index];
+    }
+
+    boolean hasSide(Direction side) {
+        byte sideId = (byte) side.get3DDataValue();
+        for (int i = 0; i < size; i++) {
+            if (sides[i] == sideId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add {@code delta} (negative to release) to the total for the stack's variant on the given side.
+     */
+    void add(byte side, ItemStack stack, long delta) {
+        int index = find(side, stack);
+        if (index < 0) {
+            if (delta <= 0) {
+                return;
+            }
+            if (size == templates.length) {
+                grow();
+            }
+            index = size++;
+            // Stacks can leave the pipe and be mutated elsewhere (e.g. as a dropped item), so keep a copy
+            templates[index] = stack.copyWithCount(1);
+            sides[index] = side;
+            amounts[index] = 0;
+        }
+
+        amounts[index] += delta;
+        if (amounts[index] <= 0) {
+            int last = --size;
+            templates[index] = templates[last];
+            sides[index] = sides[last];
+            amounts[index] = amounts[last];
+            templates[last] = null;
+        }
+    }
+
+    void clear() {
+        Arrays.fill(templates, 0, size, null);
+        size = 0;
+    }
+
+    private int find(byte side, ItemStack stack) {
+        for (int i = 0; i < size; i++) {
+            if (sides[i] == side && ItemStack.isSameItemSameComponents(templates[i], stack)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void grow() {
+        int capacity = templates.length * 2;
+        templates = Arrays.copyOf(templates, capacity);
+        sides = Arrays.copyOf(sides, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+    }
+}
@@ -0,0 +1,50 @@
+package com.logistics.pipe.runtime;
+
+import com.logistics.pipe.network.PipeSyncPayload;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+
+/**
+ * One pipe as seen by server-side item processing ({@link PipeRuntime#processItems}): its position, item
+ * buffer and connections, the routing decision of its modules, and where items waiting for a handoff are
+ * queued.
+ *
+ * <p>In the game this is a pipe block entity during its scheduler tick; a headless simulator can implement it
+ * over a {@link PipeWorld} grid to run the same routing and handoff code without a level.
+ */
+public interface TransportPipe {
+    BlockPos getBlockPos();
+
+    PipeItemBuffer getItemBuffer();
+
+    /**
+     * Connected sides as a {@link DirectionMask}.
+     */
+    int getConnectionMask();
+
+    /**
+     * Routing decision of the pipe's modules for an item crossing the center. {@link RoutePlan#pass()} falls
+     * back to a random pick among {@code validMask}.
+     *
+     * @param item a view of the item, only valid for the duration of the call
+     * @param validMask connected sides other than the one the item entered from
+     */
+    default RoutePlan route(TravelingItem item, int validMask) {
+        return RoutePlan.pass();
+    }
+
+    /**
+     * Queue the item with the given id for a handoff after every pipe has processed its items.
+     */
+    void deferHandoff(int itemId);
+
+    /**
+     * Record an item change for clients watching this pipe.
+     */
+    default void queueItemSync(PipeSyncPayload.Op op) {}
+
+    /**
+     * Called after an item was routed toward the given side.
+     */
+    default void onRouted(Direction side) {}
+}
@@ -35,6 +35,15 @@ public class TravelingItem {
         return item;
     }
 
+    /**
+     * Rebuild a view of an item stored in a {@link PipeItemBuffer}. The stack is shared, not copied.
+     */
+    static TravelingItem restore(ItemStack stack, Direction direction, float speed, float progress, boolean routed) {
+        TravelingItem item = new TravelingItem(direction, speed);
+        item.load(stack, direction, speed, progress, routed);
+        return item;
+    }
+
     private ItemStack stack;
     private float progress; // 0.0 = entering pipe, 1.0 = leaving pipe
     private Direction direction; // Direction of travel through current pipe
@@ -42,7 +51,29 @@ public class TravelingItem {
     private boolean routed; // True once the item has been routed at the center
 
     public TravelingItem(ItemStack stack, Direction direction, float speed) {
+        this(direction, speed);
         this.stack = stack.copy();
+    }
+
+    /**
+     * Create an empty view for {@link PipeItemBuffer#loadView}.
+     */
+    static TravelingItem createView() {
+        return new TravelingItem(Direction.DOWN, 0.0f);
+    }
+
+    /**
+     * Repoint a view at another item's state. The stack is shared, not copied.
+     */
+    void load(ItemStack stack, Direction direction, float speed, float progress, boolean routed) {
+        this.stack = stack;
+        this.direction = direction;
+        this.speed = speed;
+        this.progress = progress;
+        this.routed = routed;
+    }
+
+    private TravelingItem(Direction direction, float speed) {
         this.progress = 0.0f;
         this.direction = direction;
         this.speed = speed;
@@ -58,6 +89,15 @@ public class TravelingItem {
      * @return true if item reached the end of this pipe segment
      */
     public boolean tick(float accelerationRate, float dragCoefficient, float maxSpeed) {
+        speed = nextSpeed(speed, progress, accelerationRate, dragCoefficient, maxSpeed);
+        progress += speed;
+        return progress >= 1.0f;
+    }
+
+    /**
+     * Compute an item's speed for the next tick. Shared by {@link #tick} and {@link PipeItemBuffer#tick}.
+     */
+    static float nextSpeed(float speed, float progress, float accelerationRate, float dragCoefficient, float maxSpeed) {
         boolean deceleratingToMax = speed > maxSpeed;
         if (deceleratingToMax) {
             float remaining = Math.max(1.0e-4f, 1.0f - progress);
@@ -79,9 +119,7 @@ public class TravelingItem {
         } else if (!deceleratingToMax && speed > maxSpeed) {
             speed = maxSpeed;
         }
-
-        progress += speed;
-        return progress >= 1.0f;
+        return speed;
     }
 
     /**
@@ -163,7 +163,6 @@ public class FilterInventory implements Container {
             module.setFilterSlots(ctx, direction, slots);
         }
 
-        pipeEntity.setChanged();
-        world.sendBlockUpdated(pipeEntity.getBlockPos(), pipeEntity.getBlockState(), pipeEntity.getBlockState(), 3);
+        ctx.markDirtyAndSync();
     }
 }